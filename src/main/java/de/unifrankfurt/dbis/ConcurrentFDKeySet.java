@@ -0,0 +1,175 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * FDKeySet that may be used by several threads at once, e.g. as shared accumulator of minimal keys.
+ * Every read holds a read lock, every change the write lock, so the guarantee of FDKeySet
+ * that no stored FDKey is a superset of another also holds under concurrent add.
+ * add first checks for a stored subset under the read lock, so the common case of a redundant key
+ * does not block other threads.
+ * Iterators walk a copy taken when they are created.
+ */
+public class ConcurrentFDKeySet extends FDKeySet {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ConcurrentFDKeySet() {
+        super();
+    }
+
+    /**
+     * copies other without checking for redundancy again.
+     *
+     * @param other FDKeySet to copy
+     */
+    public ConcurrentFDKeySet(FDKeySet other) {
+        super(other instanceof ConcurrentFDKeySet ? ((ConcurrentFDKeySet) other).toFDKeySet() : other);
+    }
+
+    /**
+     * @return FDKeySet with the current keys of this, for use by a single thread
+     */
+    public FDKeySet toFDKeySet() {
+        this.lock.readLock().lock();
+        try {
+            return new FDKeySet(this);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return super.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        this.lock.readLock().lock();
+        try {
+            return super.contains(o);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isRedundant(FDKey key) {
+        this.lock.readLock().lock();
+        try {
+            return super.isRedundant(key);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Iterator over a copy of the current keys, with the order of FDKeySet.iterator
+     */
+    @Override
+    public Iterator<FDKey> iterator() {
+        this.lock.readLock().lock();
+        try {
+            List<FDKey> keys = new ArrayList<>(super.size());
+            super.iterator().forEachRemaining(keys::add);
+            return keys.iterator();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Tries to add key to this like FDKeySet.add.
+     * Subsets added by other threads between the check under the read lock and taking the write lock
+     * are found again, because FDKeySet.add checks for redundancy itself.
+     *
+     * @param key to be added
+     * @return true if this is changed as result of add.
+     * @throws NullPointerException if key == null
+     */
+    @Override
+    public boolean add(FDKey key) {
+        if (key == null) throw new NullPointerException();
+        if (this.isRedundant(key)) return false;
+        this.lock.writeLock().lock();
+        try {
+            return super.add(key);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    void addMinimal(FDKey key) {
+        this.lock.writeLock().lock();
+        try {
+            super.addMinimal(key);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        this.lock.writeLock().lock();
+        try {
+            return super.remove(o);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        this.lock.writeLock().lock();
+        try {
+            super.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean removeAll(Collection collection) {
+        this.lock.writeLock().lock();
+        try {
+            return super.removeAll(collection);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean retainAll(Collection collection) {
+        this.lock.writeLock().lock();
+        try {
+            return super.retainAll(collection);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof FDKeySet)) return false;
+        return this.toFDKeySet().equals(o instanceof ConcurrentFDKeySet ? ((ConcurrentFDKeySet) o).toFDKeySet() : o);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.toFDKeySet().hashCode();
+    }
+}
@@ -0,0 +1,78 @@
+package de.unifrankfurt.dbis;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates an Armstrong relation of a FDRelation: a table on which exactly the dependencies
+ * implied by the relation hold.
+ * <p>
+ * The table is built from the maximal sets: for an attribute A, max(A) are the largest attribute
+ * sets not determining A. They are the complements of the minimal transversals of the keys
+ * determining A in the transitive closure. The table has a row of 0 only and for the i-th distinct
+ * maximal set M one row with 0 on M and i elsewhere, so X -> A is violated exactly if X is inside
+ * some M of max(A).
+ */
+public class FDArmstrongRelation {
+
+    private FDArmstrongRelation() {
+    }
+
+    /**
+     * @param relation FDRelation
+     * @return every distinct maximal set of relation in a stable order
+     */
+    public static List<Set<String>> maximalSets(FDRelation relation) {
+        FDRelation closure = relation.transitiveClosureReflexive();
+        List<String> attributes = new ArrayList<>(closure.getAttributes());
+        Collections.sort(attributes);
+        LinkedHashSet<Set<String>> maximalSets = new LinkedHashSet<>();
+        for (String attribute : attributes) {
+            FDKeySet transversals = null;
+            for (FDKey key : closure.dataView().get(attribute)) {
+                FDKeySet singletons = new FDKeySet();
+                for (String element : key) {
+                    singletons.add(new FDKey(element));
+                }
+                transversals = FDSolver.product(transversals, singletons);
+            }
+            for (FDKey transversal : transversals) {
+                TreeSet<String> maximal = new TreeSet<>(attributes);
+                maximal.removeAll(transversal.toSet());
+                maximalSets.add(Collections.unmodifiableSet(maximal));
+            }
+        }
+        return new ArrayList<>(maximalSets);
+    }
+
+    /**
+     * writes the Armstrong relation of relation row by row as CSV, the first line names the columns
+     *
+     * @param relation  FDRelation
+     * @param writer    target, is flushed but not closed
+     * @param delimiter separates the columns
+     * @throws IOException if writing fails
+     */
+    public static void write(FDRelation relation, Writer writer, String delimiter) throws IOException {
+        List<String> attributes = new ArrayList<>(relation.getAttributes());
+        Collections.sort(attributes);
+        String ls = System.lineSeparator();
+        writer.write(String.join(delimiter, attributes));
+        writer.write(ls);
+        String[] row = new String[attributes.size()];
+        Arrays.fill(row, "0");
+        writer.write(String.join(delimiter, row));
+        writer.write(ls);
+        int i = 0;
+        for (Set<String> maximal : maximalSets(relation)) {
+            String value = String.valueOf(++i);
+            for (int c = 0; c < row.length; c++) {
+                row[c] = maximal.contains(attributes.get(c)) ? "0" : value;
+            }
+            writer.write(String.join(delimiter, row));
+            writer.write(ls);
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,80 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Classifies every attribute of a FDRelation by the nontrivial dependencies it appears in.
+ * A dependency key -> A is trivial if A is in key.
+ * <ul>
+ * <li>LHS_ONLY: in some key, never determined. Part of every candidate key.</li>
+ * <li>RHS_ONLY: determined, in no key. Part of no candidate key.</li>
+ * <li>BOTH: determined and in some key. Only these attributes need to be searched.</li>
+ * <li>ISOLATED: in no dependency. Part of every candidate key.</li>
+ * </ul>
+ * For a transitive closure RHS_ONLY also holds for attributes only used in keys that are not minimal,
+ * so classifying the closure gives the smallest search space.
+ */
+public class FDAttributeClassification {
+
+    public enum Kind {
+        LHS_ONLY,
+        RHS_ONLY,
+        BOTH,
+        ISOLATED
+    }
+
+    private final HashMap<String, Kind> kinds;
+
+    /**
+     * @param relation FDRelation to classify
+     */
+    public FDAttributeClassification(FDRelation relation) {
+        HashSet<String> left = new HashSet<>();
+        HashSet<String> right = new HashSet<>();
+        for (Map.Entry<String, FDKeySet> entry : relation.dataView().entrySet()) {
+            for (FDKey key : entry.getValue()) {
+                if (key.contains(entry.getKey())) continue;
+                right.add(entry.getKey());
+                key.forEach(left::add);
+            }
+        }
+        this.kinds = new HashMap<>();
+        for (String attribute : relation.getAttributes()) {
+            boolean isLeft = left.contains(attribute);
+            boolean isRight = right.contains(attribute);
+            Kind kind;
+            if (isLeft && isRight) kind = Kind.BOTH;
+            else if (isLeft) kind = Kind.LHS_ONLY;
+            else if (isRight) kind = Kind.RHS_ONLY;
+            else kind = Kind.ISOLATED;
+            this.kinds.put(attribute, kind);
+        }
+    }
+
+    /**
+     * @return Kind of attribute, null if attribute is unknown
+     */
+    public Kind get(String attribute) {
+        return kinds.get(attribute);
+    }
+
+    /**
+     * @return every attribute of kind
+     */
+    public HashSet<String> getAttributes(Kind kind) {
+        HashSet<String> attributes = new HashSet<>();
+        kinds.forEach((attribute, k) -> {
+            if (k == kind) attributes.add(attribute);
+        });
+        return attributes;
+    }
+
+    /**
+     * @return every attribute that is part of every candidate key (LHS_ONLY and ISOLATED)
+     */
+    public HashSet<String> getMandatory() {
+        HashSet<String> mandatory = getAttributes(Kind.LHS_ONLY);
+        mandatory.addAll(getAttributes(Kind.ISOLATED));
+        return mandatory;
+    }
+}
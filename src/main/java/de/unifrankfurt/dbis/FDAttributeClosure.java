@@ -0,0 +1,165 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Computes the closure X+ of attribute sets under the dependencies of a FDRelation
+ * in time linear to the size of the dependencies.
+ * Every dependency counts the attributes of its key not yet in the closure,
+ * when the count reaches 0 its attributes join the closure.
+ * The arrays are built once from the FDDependencyIndex of the relation, so many closures of one relation are cheap.
+ */
+final class FDAttributeClosure {
+
+    private final HashMap<String, Integer> index;
+    private final String[] names;
+
+    /**
+     * key attributes of every dependency
+     */
+    private final int[][] keys;
+
+    /**
+     * dependent attributes of every dependency
+     */
+    private final int[][] values;
+
+    /**
+     * dependencies using each attribute in their key
+     */
+    private final int[][] uses;
+
+    /**
+     * key size of every dependency, copied as counters for each closure
+     */
+    private final int[] unsatisfied;
+
+    FDAttributeClosure(FDRelation relation) {
+        this.index = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        FDDependencyIndex dependencies = relation.dependencyIndex();
+        int count = dependencies.getDependencies().size();
+        this.keys = new int[count][];
+        this.values = new int[count][];
+        this.unsatisfied = dependencies.unsatisfiedCounts();
+        List<List<Integer>> uses = new ArrayList<>();
+        for (FDDependencyIndex.Dependency dependency : dependencies.getDependencies()) {
+            int fd = dependency.id;
+            this.keys[fd] = this.indices(dependency.key.toSet(), names, uses);
+            this.values[fd] = this.indices(dependency.values, names, uses);
+            for (int attribute : this.keys[fd]) {
+                uses.get(attribute).add(fd);
+            }
+        }
+        this.names = names.toArray(new String[0]);
+        this.uses = new int[uses.size()][];
+        for (int attribute = 0; attribute < this.uses.length; attribute++) {
+            this.uses[attribute] = uses.get(attribute).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    private int[] indices(Collection<String> attributes, List<String> names, List<List<Integer>> uses) {
+        int[] result = new int[attributes.size()];
+        int i = 0;
+        for (String attribute : attributes) {
+            Integer position = this.index.get(attribute);
+            if (position == null) {
+                position = names.size();
+                this.index.put(attribute, position);
+                names.add(attribute);
+                uses.add(new ArrayList<>());
+            }
+            result[i++] = position;
+        }
+        return result;
+    }
+
+    /**
+     * @param attributes start set X, attributes unknown to the relation are kept
+     * @return every attribute determined by attributes, including attributes
+     */
+    HashSet<String> closure(Collection<String> attributes) {
+        boolean[] closed = this.closedFlags(attributes);
+        HashSet<String> result = new HashSet<>(attributes);
+        for (int attribute = 0; attribute < closed.length; attribute++) {
+            if (closed[attribute]) result.add(this.names[attribute]);
+        }
+        return result;
+    }
+
+    /**
+     * @return true if key determines every attribute in values
+     */
+    boolean implies(Collection<String> key, Collection<String> values) {
+        boolean[] closed = null;
+        for (String value : values) {
+            if (key.contains(value)) continue;
+            Integer position = this.index.get(value);
+            if (position == null) return false;
+            if (closed == null) closed = this.closedFlags(key);
+            if (!closed[position]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return count of attributes used by the dependencies, the size of the bitsets of closure
+     */
+    int size() {
+        return this.names.length;
+    }
+
+    /**
+     * @return bit of attribute in the bitsets of closure, -1 if no dependency uses attribute
+     */
+    int indexOf(String attribute) {
+        Integer position = this.index.get(attribute);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * @param attributes start set X as bitset over indexOf
+     * @return X+ as new bitset
+     */
+    BitSet closure(BitSet attributes) {
+        boolean[] closed = this.closedFlags(attributes.stream().toArray());
+        BitSet result = new BitSet(closed.length);
+        for (int attribute = 0; attribute < closed.length; attribute++) {
+            if (closed[attribute]) result.set(attribute);
+        }
+        return result;
+    }
+
+    private boolean[] closedFlags(Collection<String> attributes) {
+        int[] positions = new int[attributes.size()];
+        int count = 0;
+        for (String attribute : attributes) {
+            Integer position = this.index.get(attribute);
+            if (position != null) positions[count++] = position;
+        }
+        return this.closedFlags(Arrays.copyOf(positions, count));
+    }
+
+    private boolean[] closedFlags(int[] positions) {
+        boolean[] closed = new boolean[this.names.length];
+        int[] missing = this.unsatisfied.clone();
+        int[] queue = new int[this.names.length];
+        int tail = 0;
+        for (int position : positions) {
+            if (closed[position]) continue;
+            closed[position] = true;
+            queue[tail++] = position;
+        }
+        for (int head = 0; head < tail; head++) {
+            for (int fd : this.uses[queue[head]]) {
+                if (--missing[fd] > 0) continue;
+                for (int value : this.values[fd]) {
+                    if (closed[value]) continue;
+                    closed[value] = true;
+                    queue[tail++] = value;
+                }
+            }
+        }
+        return closed;
+    }
+}
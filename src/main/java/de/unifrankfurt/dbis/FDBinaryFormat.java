@@ -0,0 +1,250 @@
+package de.unifrankfurt.dbis;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Compact binary format for FDRelation and FDSolver.
+ * <p>
+ * Layout (version 2), every number is an unsigned varint:
+ * <pre>
+ * magic "FDCB", kind ('R' relation or 'S' solver), version
+ * dictionary:  count, then each attribute as length and UTF-8 bytes
+ * relation:    attributes bitset, 1 if forced attributes follow else 0, [forced attributes bitset],
+ *              count of keys, then each key as bitset of the key and bitset of the attributes depending on it,
+ *              count of multivalued dependencies, then each as bitset of the key and bitset of its values
+ * solver:      given relation, closure relation, prim bitset, notPrim bitset,
+ *              count of key candidates, then each key candidate as bitset, normal form
+ * bitset:      count of 64 bit words, then each word
+ * </pre>
+ * Bit i of a bitset stands for the attribute at index i of the dictionary.
+ * Version 1 is read as well, it has no multivalued dependencies.
+ * Stored FDKeySets are minimal already, so reading does not check for redundancy again.
+ */
+final class FDBinaryFormat {
+
+    private static final byte[] MAGIC = {'F', 'D', 'C', 'B'};
+    static final int VERSION = 2;
+    private static final byte RELATION = 'R';
+    private static final byte SOLVER = 'S';
+
+    private FDBinaryFormat() {
+    }
+
+    /**
+     * maps the whole file read only into memory
+     *
+     * @param path file to map
+     * @return ByteBuffer of file content
+     * @throws IOException if file can not be read
+     */
+    static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    static void write(FDRelation relation, OutputStream out) throws IOException {
+        Encoder encoder = new Encoder(out, RELATION, relation.getAttributes());
+        encoder.relation(relation);
+        encoder.flush();
+    }
+
+    static void write(FDSolver solver, OutputStream out) throws IOException {
+        HashSet<String> attributes = solver.getRelation().getAttributes();
+        attributes.addAll(solver.getRelationRaw().getAttributes());
+        Encoder encoder = new Encoder(out, SOLVER, attributes);
+        encoder.relation(solver.getRelationRaw());
+        encoder.relation(solver.getRelation());
+        encoder.bitset(solver.getPrim());
+        encoder.bitset(solver.getNotPrim());
+        encoder.varint(solver.getKeyCandidateCount());
+        for (FDKey key : solver.iterateKeyCandidates()) {
+            encoder.bitset(key);
+        }
+        encoder.varint(solver.getNF());
+        encoder.flush();
+    }
+
+    static FDRelation readRelation(ByteBuffer buffer) throws IOException {
+        try {
+            return new Decoder(buffer, RELATION).relation();
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("corrupt binary relation", e);
+        }
+    }
+
+    static FDSolver readSolver(ByteBuffer buffer) throws IOException {
+        try {
+            Decoder decoder = new Decoder(buffer, SOLVER);
+            FDRelation relationRaw = decoder.relation();
+            FDRelation relation = decoder.relation();
+            HashSet<String> prim = decoder.attributes();
+            HashSet<String> notPrim = decoder.attributes();
+            FDKeySet keyCandidates = new FDKeySet();
+            int count = decoder.varint();
+            for (int i = 0; i < count; i++) {
+                keyCandidates.addMinimal(decoder.key());
+            }
+            int nf = decoder.varint();
+            return new FDSolver(relation, relationRaw, prim, notPrim, nf, keyCandidates);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("corrupt binary solver", e);
+        }
+    }
+
+    private static final class Encoder {
+        private final DataOutputStream out;
+        private final HashMap<String, Integer> index;
+
+        private Encoder(OutputStream out, byte kind, Collection<String> attributes) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+            this.index = new HashMap<>();
+            this.out.write(MAGIC);
+            this.out.writeByte(kind);
+            this.varint(VERSION);
+            String[] sorted = attributes.toArray(new String[0]);
+            Arrays.sort(sorted);
+            this.varint(sorted.length);
+            for (String attribute : sorted) {
+                this.index.put(attribute, this.index.size());
+                byte[] bytes = attribute.getBytes(StandardCharsets.UTF_8);
+                this.varint(bytes.length);
+                this.out.write(bytes);
+            }
+        }
+
+        private void relation(FDRelation relation) throws IOException {
+            this.bitset(relation.getAttributes());
+            HashSet<String> forced = relation.getForcedAttributes();
+            this.varint(forced == null ? 0 : 1);
+            if (forced != null) this.bitset(forced);
+            HashMap<FDKey, HashSet<String>> dependencies = relation.getDictKeyToAttribute();
+            this.varint(dependencies.size());
+            for (Map.Entry<FDKey, HashSet<String>> entry : dependencies.entrySet()) {
+                this.bitset(entry.getKey());
+                this.bitset(entry.getValue());
+            }
+            Set<FDSimpleRelation> multivalued = relation.getMultivaluedDependencies();
+            this.varint(multivalued.size());
+            for (FDSimpleRelation mvd : multivalued) {
+                this.bitset(mvd.getKey());
+                this.bitset(mvd.getValues());
+            }
+        }
+
+        private void bitset(Iterable<String> attributes) throws IOException {
+            BitSet bits = new BitSet(this.index.size());
+            for (String attribute : attributes) {
+                bits.set(this.index.get(attribute));
+            }
+            long[] words = bits.toLongArray();
+            this.varint(words.length);
+            for (long word : words) {
+                this.varint(word);
+            }
+        }
+
+        private void varint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                this.out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            this.out.writeByte((int) value);
+        }
+
+        private void flush() throws IOException {
+            this.out.flush();
+        }
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private final String[] dictionary;
+        private final int version;
+
+        private Decoder(ByteBuffer buffer, byte kind) throws IOException {
+            this.buffer = buffer;
+            byte[] magic = new byte[MAGIC.length];
+            this.buffer.get(magic);
+            if (!Arrays.equals(MAGIC, magic)) throw new IOException("no binary FDChecker data");
+            byte foundKind = this.buffer.get();
+            if (foundKind != kind) throw new IOException("expected kind " + (char) kind + " but found " + (char) foundKind);
+            this.version = this.varint();
+            if (this.version < 1 || this.version > VERSION) throw new IOException("unsupported version " + this.version);
+            this.dictionary = new String[this.varint()];
+            for (int i = 0; i < this.dictionary.length; i++) {
+                byte[] bytes = new byte[this.varint()];
+                this.buffer.get(bytes);
+                this.dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+
+        private FDRelation relation() {
+            HashSet<String> attributes = this.attributes();
+            HashSet<String> forced = this.varint() == 0 ? null : this.attributes();
+            HashMap<String, FDKeySet> data = new HashMap<>();
+            int count = this.varint();
+            for (int i = 0; i < count; i++) {
+                FDKey key = this.key();
+                for (String attribute : this.attributes()) {
+                    data.computeIfAbsent(attribute, a -> new FDKeySet()).addMinimal(key);
+                }
+            }
+            FDRelation relation = new FDRelation(data, attributes, forced);
+            if (this.version < 2) return relation;
+            count = this.varint();
+            for (int i = 0; i < count; i++) {
+                try {
+                    relation.add(new FDSimpleRelation(this.attributes(), this.attributes(), true));
+                } catch (FDKey.EmptyException | FDRelation.UnexpectedAttributeException e) {
+                    throw new IllegalArgumentException("invalid multivalued dependency", e);
+                }
+            }
+            return relation;
+        }
+
+        private FDKey key() {
+            return new FDKey(this.attributes());
+        }
+
+        private HashSet<String> attributes() {
+            long[] words = new long[this.varint()];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = this.varlong();
+            }
+            BitSet bits = BitSet.valueOf(words);
+            HashSet<String> attributes = new HashSet<>();
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                if (i >= this.dictionary.length) throw new IllegalArgumentException("unknown attribute " + i);
+                attributes.add(this.dictionary[i]);
+            }
+            return attributes;
+        }
+
+        private int varint() {
+            long value = this.varlong();
+            if (value > Integer.MAX_VALUE) throw new IllegalArgumentException("number too large " + value);
+            return (int) value;
+        }
+
+        private long varlong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (shift > 63) throw new IllegalArgumentException("varint too long");
+                b = this.buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
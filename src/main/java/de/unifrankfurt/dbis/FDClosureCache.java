@@ -0,0 +1,135 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of the closures and direct dependencies of attribute sets of one FDRelation.
+ * Attribute sets are encoded as BitSet over the attributes of the relation, attributes unknown to
+ * the relation do not change a result and are left out of the encoding.
+ * The owning FDRelation invalidates the cache whenever its dependencies change.
+ * Hits and misses are counted over the whole life of the cache.
+ */
+final class FDClosureCache {
+
+    private final FDRelation relation;
+    private final int capacity;
+    private final LinkedHashMap<BitSet, HashSet<String>> dependencies;
+    private final LinkedHashMap<BitSet, HashSet<String>> closures;
+
+    /**
+     * index of every attribute, null until first use after invalidate
+     */
+    private HashMap<String, Integer> index;
+
+    /**
+     * closure index of relation, null until first use after invalidate
+     */
+    private FDAttributeClosure attributeClosure;
+
+    private long hits;
+    private long misses;
+
+    /**
+     * @param relation owner
+     * @param capacity max count of cached results per kind
+     */
+    FDClosureCache(FDRelation relation, int capacity) {
+        this.relation = relation;
+        this.capacity = capacity;
+        this.dependencies = lru(capacity);
+        this.closures = lru(capacity);
+    }
+
+    private static LinkedHashMap<BitSet, HashSet<String>> lru(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BitSet, HashSet<String>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * drops every cached result, e.g. after a new dependency was added
+     */
+    synchronized void invalidate() {
+        this.dependencies.clear();
+        this.closures.clear();
+        this.index = null;
+        this.attributeClosure = null;
+    }
+
+    /**
+     * @param key  FDKey to lookup
+     * @param scan computes the result on a miss
+     * @return copy of the cached result of scan for key
+     */
+    synchronized HashSet<String> dependenciesOf(FDKey key, Function<FDKey, HashSet<String>> scan) {
+        BitSet bits = this.bits(key);
+        HashSet<String> result = this.dependencies.get(bits);
+        if (result != null) {
+            this.hits++;
+        } else {
+            this.misses++;
+            result = scan.apply(key);
+            this.dependencies.put(bits, result);
+        }
+        return new HashSet<>(result);
+    }
+
+    /**
+     * @param attributes start set
+     * @return every attribute determined by attributes, including attributes
+     */
+    synchronized HashSet<String> closure(Collection<String> attributes) {
+        BitSet bits = this.bits(attributes);
+        HashSet<String> cached = this.closures.get(bits);
+        if (cached != null) {
+            this.hits++;
+        } else {
+            this.misses++;
+            cached = this.attributeClosure().closure(attributes);
+            cached.retainAll(this.index.keySet());
+            this.closures.put(bits, cached);
+        }
+        HashSet<String> result = new HashSet<>(cached);
+        result.addAll(attributes);
+        return result;
+    }
+
+    /**
+     * @return closure index of the relation, built once until invalidate
+     */
+    synchronized FDAttributeClosure attributeClosure() {
+        if (this.attributeClosure == null) this.attributeClosure = new FDAttributeClosure(this.relation);
+        return this.attributeClosure;
+    }
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMisses() {
+        return misses;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    private BitSet bits(Iterable<String> attributes) {
+        if (this.index == null) {
+            this.index = new HashMap<>();
+            for (String attribute : this.relation.getAttributes()) {
+                this.index.put(attribute, this.index.size());
+            }
+        }
+        BitSet bits = new BitSet(this.index.size());
+        for (String attribute : attributes) {
+            Integer position = this.index.get(attribute);
+            if (position != null) bits.set(position);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,165 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Finds conditional functional dependencies on a FDTable.
+ * A dependency key -> attribute of a FDRelation that does not hold on the whole table
+ * may still hold on every row where some column has a constant value,
+ * e.g. zip -> city where country = DE.
+ * For every violated dependency and every column not used by it, the values of the column with at least
+ * minSupport rows are collected into a pattern tableau if key -> attribute holds on their rows.
+ */
+public class FDConditionalFinder {
+
+    private FDConditionalFinder() {
+    }
+
+    /**
+     * @param relation   dependencies to refine
+     * @param table      data
+     * @param minSupport min count of rows a constant pattern has to match
+     * @return every ConditionalDependency with at least one pattern, sorted by dependency
+     * @throws FDValidator.MissingAttributeException if relation uses an attribute that is no column of table
+     */
+    public static List<ConditionalDependency> find(FDRelation relation, FDTable table, int minSupport)
+            throws FDValidator.MissingAttributeException {
+        List<ConditionalDependency> result = new ArrayList<>();
+        // count every value once, so unsupported values are skipped without hashing their rows
+        int[][] supports = new int[table.getAttributes().size()][];
+        for (int c = 0; c < supports.length; c++) {
+            supports[c] = new int[table.distinct(c)];
+            int[] codes = table.codes(c);
+            for (int row = 0; row < table.size(); row++) {
+                supports[c][codes[row]]++;
+            }
+        }
+        for (FDValidator.Violation violation : FDValidator.validate(relation, table, 0)) {
+            if (violation.holds()) continue;
+            for (String condition : table.getAttributes()) {
+                if (condition.equals(violation.getAttribute())) continue;
+                if (violation.getKey().toSet().contains(condition)) continue;
+                ConditionalDependency dependency = find(violation.getKey(), violation.getAttribute(),
+                        condition, table, supports[table.indexOf(condition)], minSupport);
+                if (dependency != null) result.add(dependency);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * checks key -> attribute for every supported value of condition in one pass over table.
+     *
+     * @return null if no value of condition makes key -> attribute hold
+     */
+    private static ConditionalDependency find(FDKey key, String attribute, String condition,
+                                              FDTable table, int[] supports, int minSupport) {
+        boolean anySupported = false;
+        for (int support : supports) {
+            anySupported = anySupported || support >= minSupport;
+        }
+        if (!anySupported) return null;
+
+        int conditionColumn = table.indexOf(condition);
+        int[] conditionCodes = table.codes(conditionColumn);
+        Set<String> lhs = key.toSet();
+        lhs.add(condition);
+        int[][] keyColumns = FDValidator.columns(lhs.toArray(new String[0]), table);
+        int[] values = table.codes(table.indexOf(attribute));
+
+        boolean[] violated = new boolean[supports.length];
+        HashMap<FDValidator.Tuple, Integer> firstRows = new HashMap<>();
+        for (int row = 0; row < table.size(); row++) {
+            int code = conditionCodes[row];
+            if (violated[code] || supports[code] < minSupport) continue;
+            Integer first = firstRows.putIfAbsent(new FDValidator.Tuple(keyColumns, row), row);
+            if (first != null && values[first] != values[row]) violated[code] = true;
+        }
+
+        ConditionalDependency dependency = new ConditionalDependency(key, attribute, condition);
+        for (int code = 0; code < supports.length; code++) {
+            if (violated[code] || supports[code] < minSupport) continue;
+            dependency.patterns.put(table.decode(conditionColumn, code), supports[code]);
+        }
+        return dependency.patterns.isEmpty() ? null : dependency;
+    }
+
+    /**
+     * creates a readable report of dependencies.
+     *
+     * @param dependencies result of find
+     * @return one line per ConditionalDependency
+     */
+    public static String report(List<ConditionalDependency> dependencies) {
+        StringJoiner joiner = new StringJoiner(System.lineSeparator());
+        for (ConditionalDependency dependency : dependencies) {
+            joiner.add(dependency.toString());
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * key -> attribute holds on the rows where condition has one of the values in the pattern tableau.
+     */
+    public static class ConditionalDependency {
+        private final FDKey key;
+        private final String attribute;
+        private final String condition;
+
+        /**
+         * pattern tableau, maps each constant value of condition to its support
+         */
+        private final LinkedHashMap<String, Integer> patterns;
+
+        ConditionalDependency(FDKey key, String attribute, String condition) {
+            this.key = key;
+            this.attribute = attribute;
+            this.condition = condition;
+            this.patterns = new LinkedHashMap<>();
+        }
+
+        public FDKey getKey() {
+            return key;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * @return the column with constant values
+         */
+        public String getCondition() {
+            return condition;
+        }
+
+        /**
+         * @return Mapping of each value of condition to the count of rows having it
+         */
+        public Map<String, Integer> getPatterns() {
+            return Collections.unmodifiableMap(patterns);
+        }
+
+        /**
+         * @return the embedded dependency with condition as additional key attribute
+         */
+        public FDSimpleRelation toSimpleRelation() {
+            Set<String> lhs = key.toSet();
+            lhs.add(condition);
+            return new FDSimpleRelation(lhs, Set.of(attribute));
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder()
+                    .append(key).append(" -> ").append(attribute)
+                    .append(" | ").append(condition).append(":");
+            String separator = " ";
+            for (Map.Entry<String, Integer> pattern : patterns.entrySet()) {
+                sb.append(separator).append(pattern.getKey()).append(" (").append(pattern.getValue()).append(")");
+                separator = ", ";
+            }
+            return sb.toString();
+        }
+    }
+}
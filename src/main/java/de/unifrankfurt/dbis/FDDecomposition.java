@@ -0,0 +1,193 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Checks a decomposition of a FDRelation into fragments (sub-schemas).
+ * <p>
+ * Lossless join is checked with the chase: a tableau has one row per fragment, symbol 0 stands for
+ * the distinguished value of a column, every other cell gets a unique int symbol. Every dependency
+ * X -> A equates the symbols of A in rows agreeing on X until nothing changes. The join is lossless
+ * if a row consists of 0 only. Equated symbols are merged by a union find per column.
+ * <p>
+ * Dependency preservation is checked without projecting dependencies: for each X -> A the set Z = X
+ * is extended by ((Z &#8745; R)+ &#8745; R) for every fragment R until it is stable.
+ * A is preserved if it is in Z.
+ */
+public class FDDecomposition {
+
+    private final FDRelation relation;
+    private final List<Set<String>> fragments;
+    private final String[] attributes;
+    private final HashMap<String, Integer> index;
+
+    /**
+     * @param relation  decomposed relation
+     * @param fragments attributes of every sub-schema
+     */
+    public FDDecomposition(FDRelation relation, List<? extends Collection<String>> fragments) {
+        this.relation = relation;
+        this.fragments = new ArrayList<>();
+        for (Collection<String> fragment : fragments) {
+            this.fragments.add(new HashSet<>(fragment));
+        }
+        TreeSet<String> all = new TreeSet<>(relation.getAttributes());
+        this.fragments.forEach(all::addAll);
+        this.attributes = all.toArray(new String[0]);
+        this.index = new HashMap<>();
+        for (int i = 0; i < this.attributes.length; i++) {
+            this.index.put(this.attributes[i], i);
+        }
+    }
+
+    /**
+     * @return attributes of the relation in no fragment, sorted
+     */
+    public List<String> getUncoveredAttributes() {
+        List<String> uncovered = new ArrayList<>();
+        for (String attribute : this.attributes) {
+            if (this.fragments.stream().noneMatch(f -> f.contains(attribute))) uncovered.add(attribute);
+        }
+        return uncovered;
+    }
+
+    /**
+     * @return true if the natural join of the fragments always gives back the relation
+     */
+    public boolean isLossless() {
+        if (!this.getUncoveredAttributes().isEmpty()) return false;
+        int rows = this.fragments.size();
+        int columns = this.attributes.length;
+        // parent[c][s] is the union find of column c over symbols 0..rows
+        int[][] parent = new int[columns][rows + 1];
+        int[][] tableau = new int[rows][columns];
+        for (int c = 0; c < columns; c++) {
+            for (int s = 0; s <= rows; s++) {
+                parent[c][s] = s;
+            }
+            for (int r = 0; r < rows; r++) {
+                tableau[r][c] = this.fragments.get(r).contains(this.attributes[c]) ? 0 : r + 1;
+            }
+        }
+        List<int[][]> dependencies = this.dependencies();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int[][] dependency : dependencies) {
+                int[] key = dependency[0];
+                HashMap<List<Integer>, Integer> firstRows = new HashMap<>();
+                for (int r = 0; r < rows; r++) {
+                    List<Integer> values = new ArrayList<>(key.length);
+                    for (int c : key) {
+                        values.add(find(parent[c], tableau[r][c]));
+                    }
+                    Integer first = firstRows.putIfAbsent(values, r);
+                    if (first == null) continue;
+                    for (int c : dependency[1]) {
+                        changed |= union(parent[c], tableau[first][c], tableau[r][c]);
+                    }
+                }
+            }
+            for (int r = 0; r < rows; r++) {
+                boolean distinguished = true;
+                for (int c = 0; c < columns && distinguished; c++) {
+                    distinguished = find(parent[c], tableau[r][c]) == 0;
+                }
+                if (distinguished) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return every dependency of the relation lost by the decomposition, one per key
+     */
+    public List<FDSimpleRelation> getLostDependencies() {
+        FDAttributeClosure closure = new FDAttributeClosure(this.relation);
+        List<FDSimpleRelation> lost = new ArrayList<>();
+        for (Map.Entry<FDKey, HashSet<String>> entry : this.relation.getDictKeyToAttribute().entrySet()) {
+            Set<String> key = entry.getKey().toSet();
+            HashSet<String> reached = new HashSet<>(key);
+            boolean changed = true;
+            while (changed && !reached.containsAll(entry.getValue())) {
+                changed = false;
+                for (Set<String> fragment : this.fragments) {
+                    Set<String> start = new HashSet<>(reached);
+                    start.retainAll(fragment);
+                    if (start.isEmpty()) continue;
+                    HashSet<String> found = closure.closure(start);
+                    found.retainAll(fragment);
+                    changed |= reached.addAll(found);
+                }
+            }
+            if (reached.containsAll(entry.getValue())) continue;
+            HashSet<String> values = new HashSet<>(entry.getValue());
+            values.removeAll(reached);
+            lost.add(new FDSimpleRelation(key, values));
+        }
+        return lost;
+    }
+
+    /**
+     * @return true if every dependency of the relation follows from the dependencies inside the fragments
+     */
+    public boolean isDependencyPreserving() {
+        return this.getLostDependencies().isEmpty();
+    }
+
+    /**
+     * @return each dependency as int[]{key columns} and int[]{dependent columns}
+     */
+    private List<int[][]> dependencies() {
+        List<int[][]> dependencies = new ArrayList<>();
+        for (Map.Entry<FDKey, HashSet<String>> entry : this.relation.getDictKeyToAttribute().entrySet()) {
+            dependencies.add(new int[][]{this.columns(entry.getKey().toSet()), this.columns(entry.getValue())});
+        }
+        return dependencies;
+    }
+
+    private int[] columns(Collection<String> attributes) {
+        return attributes.stream().mapToInt(this.index::get).toArray();
+    }
+
+    private static int find(int[] parent, int symbol) {
+        while (parent[symbol] != symbol) {
+            parent[symbol] = parent[parent[symbol]];
+            symbol = parent[symbol];
+        }
+        return symbol;
+    }
+
+    /**
+     * merges the classes of a and b, the smaller root wins so 0 stays distinguished
+     *
+     * @return true if a and b were in different classes
+     */
+    private static boolean union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) return false;
+        if (rootA < rootB) parent[rootB] = rootA;
+        else parent[rootA] = rootB;
+        return true;
+    }
+
+    /**
+     * creates a readable report of both checks.
+     *
+     * @return report
+     */
+    public String report() {
+        String ls = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+        List<String> uncovered = this.getUncoveredAttributes();
+        if (!uncovered.isEmpty()) sb.append("Attributes in no fragment: ").append(uncovered).append(ls);
+        sb.append("Lossless join: ").append(this.isLossless() ? "yes" : "no").append(ls);
+        List<FDSimpleRelation> lost = this.getLostDependencies();
+        sb.append("Dependency preserving: ").append(lost.isEmpty() ? "yes" : "no");
+        for (FDSimpleRelation dependency : lost) {
+            sb.append(ls).append("lost: ").append(dependency);
+        }
+        return sb.toString();
+    }
+}
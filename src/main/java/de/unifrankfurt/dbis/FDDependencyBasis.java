@@ -0,0 +1,360 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Dependency basis, implication and fourth normal form for the functional and multivalued dependencies
+ * of a FDRelation.
+ * The dependency basis of X is the finest partition of the attributes not in X such that X ->> Y holds
+ * exactly for the unions Y of its blocks. It is found by partition refinement (Beeri 1980):
+ * starting with one block, a block Y is split by every dependency V ->> W with V disjoint from Y
+ * into Y and W and Y without W, until no dependency splits a block.
+ * Every functional dependency V -> W counts as V ->> A for each A in W.
+ * An attribute A not in X depends functionally on X if {A} is a block and A is determined
+ * by a functional dependency whose key does not contain A.
+ * Attribute sets are bitsets of long words, so a refinement step is a few word operations per block.
+ */
+public class FDDependencyBasis {
+
+    /**
+     * max count of attributes of a fragment for decompose4NF to test every subset as left side
+     */
+    static final int FRAGMENT_SEARCH_ATTRIBUTES = 16;
+
+    private final String[] names;
+    private final HashMap<String, Integer> index;
+    private final int words;
+
+    /**
+     * key and dependent attributes of every multivalued dependency, including those of functional dependencies
+     */
+    private final List<long[][]> multivalued;
+
+    /**
+     * attributes determined by a functional dependency whose key does not contain them
+     */
+    private final long[] determined;
+
+    /**
+     * left sides of the given dependencies
+     */
+    private final List<long[]> keys;
+
+    /**
+     * @param relation functional and multivalued dependencies over relation.getAttributes()
+     */
+    public FDDependencyBasis(FDRelation relation) {
+        List<String> names = new ArrayList<>(relation.getAttributes());
+        Collections.sort(names);
+        this.names = names.toArray(new String[0]);
+        this.index = new HashMap<>();
+        for (String name : this.names) {
+            this.index.put(name, this.index.size());
+        }
+        this.words = (this.names.length + 63) / 64;
+        this.multivalued = new ArrayList<>();
+        this.determined = new long[this.words];
+        LinkedHashSet<List<Long>> keys = new LinkedHashSet<>();
+        for (Map.Entry<FDKey, HashSet<String>> entry : relation.getDictKeyToAttribute().entrySet()) {
+            long[] key = this.bits(entry.getKey().toSet());
+            for (String value : entry.getValue()) {
+                long[] single = this.bits(List.of(value));
+                if (isSubset(single, key)) continue;
+                this.multivalued.add(new long[][]{key, single});
+                or(this.determined, single);
+            }
+            keys.add(asList(key));
+        }
+        for (FDSimpleRelation mvd : relation.getMultivaluedDependencies()) {
+            long[] key = this.bits(mvd.getKey().toSet());
+            this.multivalued.add(new long[][]{key, this.bits(mvd.getValues())});
+            keys.add(asList(key));
+        }
+        this.keys = new ArrayList<>();
+        for (List<Long> key : keys) {
+            this.keys.add(key.stream().mapToLong(Long::longValue).toArray());
+        }
+    }
+
+    /**
+     * @param attributes X
+     * @return blocks of the dependency basis of X, each sorted, ordered by their smallest attribute
+     */
+    public List<List<String>> basis(Collection<String> attributes) {
+        List<List<String>> basis = new ArrayList<>();
+        for (long[] block : this.blocks(this.bits(attributes))) {
+            basis.add(this.names(block));
+        }
+        basis.sort(Comparator.comparing(block -> block.get(0)));
+        return basis;
+    }
+
+    /**
+     * @param attributes X
+     * @return X+ under the functional and multivalued dependencies
+     */
+    public Set<String> closure(Collection<String> attributes) {
+        Set<String> closure = new HashSet<>(attributes);
+        closure.addAll(this.names(this.closure(this.bits(attributes))));
+        return closure;
+    }
+
+    /**
+     * @param dependency functional or multivalued dependency
+     * @return true if dependency follows from the dependencies of the relation
+     */
+    public boolean implies(FDSimpleRelation dependency) {
+        long[] key = this.bits(dependency.getKey().toSet());
+        HashSet<String> values = new HashSet<>(dependency.getValues());
+        values.removeAll(dependency.getKey().toSet());
+        if (!this.index.keySet().containsAll(values)) return false;
+        long[] bits = this.bits(values);
+        if (!dependency.isMultivalued()) return isSubset(bits, this.closure(key));
+        // X ->> Y holds iff Y without X is a union of blocks
+        for (long[] block : this.blocks(key)) {
+            if (intersects(block, bits) && !isSubset(block, bits)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the relation is in fourth normal form
+     */
+    public boolean is4NF() {
+        return this.violation(this.all()) == null;
+    }
+
+    /**
+     * Only the left sides of the given dependencies are tested: a left side X violates 4NF if
+     * X is no superkey and X ->> Y holds for some Y that is neither empty nor every other attribute.
+     *
+     * @return a nontrivial multivalued dependency whose key is no superkey, null if the relation is in 4NF
+     */
+    public FDSimpleRelation getViolation() {
+        long[][] violation = this.violation(this.all());
+        if (violation == null) return null;
+        return new FDSimpleRelation(this.names(violation[0]), this.names(violation[1]), true);
+    }
+
+    /**
+     * Decomposes the relation into fragments in fourth normal form.
+     * A fragment S violated by X ->> Y is split into X ∪ Y and S without Y,
+     * where Y is every attribute of S functionally determined by X, if that is a proper part of S without X,
+     * else one block of the dependency basis of X. Every split is a lossless join.
+     * The dependencies projected onto a fragment may have left sides that are no given left side,
+     * so fragments of at most FRAGMENT_SEARCH_ATTRIBUTES attributes are tested with every subset as left side.
+     * Larger fragments are only tested with the given left sides and may still violate 4NF.
+     *
+     * @return fragments of attributes, each sorted, for FDDecomposition
+     */
+    public List<List<String>> decompose4NF() {
+        List<List<String>> fragments = new ArrayList<>();
+        Deque<long[]> work = new ArrayDeque<>();
+        work.push(this.all());
+        while (!work.isEmpty()) {
+            long[] schema = work.pop();
+            long[][] violation = this.violation(schema);
+            if (violation == null) {
+                fragments.add(this.names(schema));
+                continue;
+            }
+            long[] rest = schema.clone();
+            andNot(rest, violation[1]);
+            long[] split = violation[0].clone();
+            or(split, violation[1]);
+            work.push(rest);
+            work.push(split);
+        }
+        fragments.sort(Comparator.comparing(Object::toString));
+        return fragments;
+    }
+
+    /**
+     * @param schema attributes of the fragment
+     * @return key and dependent attributes of a violation of 4NF in schema, null if there is none
+     */
+    private long[][] violation(long[] schema) {
+        for (long[] key : this.keys) {
+            if (!isSubset(key, schema)) continue;
+            long[][] violation = this.violation(schema, key);
+            if (violation != null) return violation;
+        }
+        int size = cardinality(schema);
+        if (size > FRAGMENT_SEARCH_ATTRIBUTES || Arrays.equals(schema, this.all())) return null;
+        // left sides of projected dependencies, smallest first
+        int[] positions = new int[size];
+        int count = 0;
+        for (int i = 0; i < this.names.length; i++) {
+            if ((schema[i >>> 6] & 1L << i) != 0) positions[count++] = i;
+        }
+        for (int keySize = 1; keySize < size; keySize++) {
+            for (int mask = (1 << keySize) - 1; mask < 1 << size; mask = nextMask(mask)) {
+                long[] key = new long[this.words];
+                for (int i = 0; i < size; i++) {
+                    if ((mask & 1 << i) != 0) key[positions[i] >>> 6] |= 1L << positions[i];
+                }
+                long[][] violation = this.violation(schema, key);
+                if (violation != null) return violation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param key left side inside schema
+     * @return key and dependent attributes if key violates 4NF in schema, else null
+     */
+    private long[][] violation(long[] schema, long[] key) {
+        long[] closure = this.closure(key);
+        or(closure, key);
+        if (isSubset(schema, closure)) return null;
+        List<long[]> blocks = new ArrayList<>();
+        for (long[] block : this.blocks(key)) {
+            long[] part = block.clone();
+            and(part, schema);
+            if (!isEmpty(part)) blocks.add(part);
+        }
+        if (blocks.size() < 2) return null;
+        long[] values = closure.clone();
+        and(values, schema);
+        andNot(values, key);
+        long[] others = schema.clone();
+        andNot(others, key);
+        if (isEmpty(values) || Arrays.equals(values, others)) values = blocks.get(0);
+        return new long[][]{key, values};
+    }
+
+    /**
+     * @return next larger int with as many bits set as mask (Gosper's hack)
+     */
+    private static int nextMask(int mask) {
+        int lowest = mask & -mask;
+        int ripple = mask + lowest;
+        return (((ripple ^ mask) >>> 2) / lowest) | ripple;
+    }
+
+    /**
+     * @return X+ without X
+     */
+    private long[] closure(long[] key) {
+        long[] closure = new long[this.words];
+        for (long[] block : this.blocks(key)) {
+            if (cardinality(block) == 1 && intersects(block, this.determined)) or(closure, block);
+        }
+        return closure;
+    }
+
+    /**
+     * partition refinement of every attribute not in key
+     */
+    private List<long[]> blocks(long[] key) {
+        List<long[]> blocks = new ArrayList<>();
+        long[] first = this.all();
+        andNot(first, key);
+        if (isEmpty(first)) return blocks;
+        blocks.add(first);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (long[][] mvd : this.multivalued) {
+                long[] left = mvd[0];
+                long[] right = mvd[1];
+                for (int i = 0; i < blocks.size(); i++) {
+                    long[] block = blocks.get(i);
+                    if (intersects(block, left) || !intersects(block, right) || isSubset(block, right)) continue;
+                    long[] inside = block.clone();
+                    and(inside, right);
+                    andNot(block, right);
+                    blocks.add(inside);
+                    changed = true;
+                }
+            }
+        }
+        return blocks;
+    }
+
+    private long[] all() {
+        long[] all = new long[this.words];
+        for (int i = 0; i < this.names.length; i++) {
+            all[i >>> 6] |= 1L << i;
+        }
+        return all;
+    }
+
+    /**
+     * @return bitset of every known attribute in attributes
+     */
+    private long[] bits(Collection<String> attributes) {
+        long[] bits = new long[this.words];
+        for (String attribute : attributes) {
+            Integer position = this.index.get(attribute);
+            if (position != null) bits[position >>> 6] |= 1L << position;
+        }
+        return bits;
+    }
+
+    private List<String> names(long[] bits) {
+        List<String> names = new ArrayList<>();
+        for (int w = 0; w < bits.length; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                names.add(this.names[(w << 6) + Long.numberOfTrailingZeros(word)]);
+            }
+        }
+        return names;
+    }
+
+    private static List<Long> asList(long[] bits) {
+        List<Long> list = new ArrayList<>(bits.length);
+        for (long word : bits) {
+            list.add(word);
+        }
+        return list;
+    }
+
+    private static boolean isSubset(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & ~b[w]) != 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & b[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    private static boolean isEmpty(long[] a) {
+        for (long word : a) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    private static int cardinality(long[] a) {
+        int size = 0;
+        for (long word : a) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    private static void or(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] |= other[w];
+        }
+    }
+
+    private static void and(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= other[w];
+        }
+    }
+
+    private static void andNot(long[] target, long[] other) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= ~other[w];
+        }
+    }
+}
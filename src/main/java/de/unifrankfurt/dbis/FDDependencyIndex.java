@@ -0,0 +1,135 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Reverse index of a FDRelation from each attribute to the dependencies using it in their key.
+ * Every distinct key is one Dependency with the attributes it minimally determines,
+ * so lookups by key attributes do not have to scan every FDKeySet of the relation.
+ * The owning FDRelation keeps the index in sync with every dataUpdate,
+ * including keys that become redundant for an attribute.
+ */
+final class FDDependencyIndex {
+
+    /**
+     * one key and the attributes it is a minimal key of
+     */
+    static final class Dependency {
+        /**
+         * position in getDependencies and unsatisfiedCounts
+         */
+        final int id;
+        final FDKey key;
+        final HashSet<String> values;
+
+        private Dependency(int id, FDKey key) {
+            this.id = id;
+            this.key = key;
+            this.values = new HashSet<>();
+        }
+    }
+
+    private final ArrayList<Dependency> dependencies;
+    private final HashMap<FDKey, Dependency> byKey;
+
+    /**
+     * dependencies using each attribute in their key
+     */
+    private final HashMap<String, List<Dependency>> uses;
+
+    /**
+     * indexes every dependency of data
+     *
+     * @param data minimal FDKeySet for every attribute
+     */
+    FDDependencyIndex(Map<String, FDKeySet> data) {
+        this.dependencies = new ArrayList<>();
+        this.byKey = new HashMap<>();
+        this.uses = new HashMap<>();
+        for (Map.Entry<String, FDKeySet> entry : data.entrySet()) {
+            for (FDKey key : entry.getValue()) {
+                this.dependency(key).values.add(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * records that key was added to the FDKeySet of attribute.
+     * The FDKeySet dropped every superset of key, so attribute is removed from their dependencies.
+     *
+     * @param key       added minimal key
+     * @param attribute determined by key
+     */
+    void added(FDKey key, String attribute) {
+        for (Dependency dependency : this.getUses(this.rarest(key))) {
+            if (dependency.key.size() > key.size() && dependency.key.isSuperKeyOf(key)) {
+                dependency.values.remove(attribute);
+            }
+        }
+        this.dependency(key).values.add(attribute);
+    }
+
+    /**
+     * @param key FDKey to lookup
+     * @return every attribute with a minimal key that is a subset of key
+     */
+    HashSet<String> dependenciesOf(FDKey key) {
+        HashSet<String> result = new HashSet<>();
+        for (String attribute : key) {
+            for (Dependency dependency : this.getUses(attribute)) {
+                if (key.isSuperKeyOf(dependency.key)) result.addAll(dependency.values);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return dependencies using attribute in their key, empty if there is none
+     */
+    List<Dependency> getUses(String attribute) {
+        return this.uses.getOrDefault(attribute, Collections.emptyList());
+    }
+
+    /**
+     * @return every dependency ordered by id, values may be empty if every attribute found a smaller key
+     */
+    List<Dependency> getDependencies() {
+        return Collections.unmodifiableList(this.dependencies);
+    }
+
+    /**
+     * counters for closure algorithms: a dependency fires when its counter drops to 0
+     *
+     * @return size of the key of every dependency by id
+     */
+    int[] unsatisfiedCounts() {
+        int[] counts = new int[this.dependencies.size()];
+        for (Dependency dependency : this.dependencies) {
+            counts[dependency.id] = dependency.key.size();
+        }
+        return counts;
+    }
+
+    private Dependency dependency(FDKey key) {
+        Dependency dependency = this.byKey.get(key);
+        if (dependency != null) return dependency;
+        dependency = new Dependency(this.dependencies.size(), key);
+        this.dependencies.add(dependency);
+        this.byKey.put(key, dependency);
+        for (String attribute : key) {
+            this.uses.computeIfAbsent(attribute, a -> new ArrayList<>()).add(dependency);
+        }
+        return dependency;
+    }
+
+    /**
+     * @return attribute of key used by the fewest dependencies
+     */
+    private String rarest(FDKey key) {
+        String rarest = null;
+        for (String attribute : key) {
+            if (rarest == null || this.getUses(attribute).size() < this.getUses(rarest).size()) rarest = attribute;
+        }
+        return rarest;
+    }
+}
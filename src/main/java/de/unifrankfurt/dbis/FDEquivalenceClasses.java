@@ -0,0 +1,164 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Groups attributes that determine each other by single attributes (A -> B and B -> A, or longer cycles).
+ * Attributes of one class are interchangeable in every candidate key, so keys are searched on one
+ * representative per class (its smallest attribute) and expanded by substitution afterwards.
+ * A candidate key never contains two attributes of one class.
+ */
+final class FDEquivalenceClasses {
+
+    /**
+     * every attribute is its own class
+     */
+    static final FDEquivalenceClasses NONE = new FDEquivalenceClasses();
+
+    /**
+     * maps every attribute in a class with more than one member to its representative
+     */
+    private final HashMap<String, String> representatives;
+
+    /**
+     * sorted members of every class with more than one member, by representative
+     */
+    private final HashMap<String, List<String>> members;
+
+    private FDEquivalenceClasses() {
+        this.representatives = new HashMap<>();
+        this.members = new HashMap<>();
+    }
+
+    /**
+     * @param closure transitive and reflexive closure, so single attribute keys are complete
+     */
+    FDEquivalenceClasses(FDRelation closure) {
+        this();
+        Map<String, FDKeySet> data = closure.dataView();
+        for (String attribute : new TreeSet<>(closure.getAttributes())) {
+            if (this.representatives.containsKey(attribute) || !data.containsKey(attribute)) continue;
+            List<String> group = new ArrayList<>();
+            group.add(attribute);
+            for (FDKey key : data.get(attribute)) {
+                if (key.size() != 1 || key.contains(attribute)) continue;
+                String other = key.iterator().next();
+                FDKeySet otherKeys = data.get(other);
+                if (otherKeys != null && otherKeys.contains(new FDKey(attribute))) group.add(other);
+            }
+            if (group.size() == 1) continue;
+            Collections.sort(group);
+            for (String member : group) {
+                this.representatives.put(member, group.get(0));
+            }
+            this.members.put(group.get(0), Collections.unmodifiableList(group));
+        }
+    }
+
+    /**
+     * @return true if no class has more than one member
+     */
+    boolean isEmpty() {
+        return this.members.isEmpty();
+    }
+
+    String representative(String attribute) {
+        return this.representatives.getOrDefault(attribute, attribute);
+    }
+
+    /**
+     * @return every class with more than one member
+     */
+    Collection<List<String>> getClasses() {
+        return Collections.unmodifiableCollection(this.members.values());
+    }
+
+    /**
+     * @return members of the class of representative, sorted
+     */
+    List<String> members(String representative) {
+        List<String> group = this.members.get(representative);
+        return group == null ? List.of(representative) : group;
+    }
+
+    /**
+     * @param closure transitive and reflexive closure this was created from
+     * @return closure on representatives only, with every key rewritten to representatives
+     */
+    FDRelation reduce(FDRelation closure) {
+        if (this.isEmpty()) return closure;
+        HashMap<String, FDKeySet> data = new HashMap<>();
+        HashSet<String> attributes = new HashSet<>();
+        for (String attribute : closure.getAttributes()) {
+            if (this.representative(attribute).equals(attribute)) attributes.add(attribute);
+        }
+        for (Map.Entry<String, FDKeySet> entry : closure.dataView().entrySet()) {
+            if (!attributes.contains(entry.getKey())) continue;
+            FDKeySet keySet = new FDKeySet();
+            for (FDKey key : entry.getValue()) {
+                HashSet<String> reduced = new HashSet<>();
+                key.forEach(attribute -> reduced.add(this.representative(attribute)));
+                keySet.add(new FDKey(reduced));
+            }
+            data.put(entry.getKey(), keySet);
+        }
+        return new FDRelation(data, attributes, attributes);
+    }
+
+    /**
+     * @param keys keys on representatives
+     * @return every key created by substituting each representative with a member of its class
+     */
+    FDKeySet expand(FDKeySet keys) {
+        if (this.isEmpty()) return keys;
+        FDKeySet result = new FDKeySet();
+        for (FDKey key : keys) {
+            List<Set<String>> expanded = new ArrayList<>();
+            expanded.add(new HashSet<>());
+            for (String representative : key) {
+                List<Set<String>> next = new ArrayList<>();
+                for (Set<String> partial : expanded) {
+                    for (String member : this.members(representative)) {
+                        Set<String> extended = new HashSet<>(partial);
+                        extended.add(member);
+                        next.add(extended);
+                    }
+                }
+                expanded = next;
+            }
+            // substitutes of a minimal key are minimal and distinct
+            for (Set<String> attributes : expanded) {
+                result.addMinimal(new FDKey(attributes));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param representatives attributes
+     * @return every member of the classes of representatives
+     */
+    HashSet<String> expand(Collection<String> representatives) {
+        HashSet<String> result = new HashSet<>();
+        for (String representative : representatives) {
+            result.addAll(this.members(representative));
+        }
+        return result;
+    }
+
+    /**
+     * @param keys keys on representatives
+     * @return size of expand(keys) without creating it
+     */
+    long count(FDKeySet keys) {
+        long count = 0;
+        for (FDKey key : keys) {
+            long variants = 1;
+            for (String representative : key) {
+                variants *= this.members(representative).size();
+            }
+            count += variants;
+        }
+        return count;
+    }
+}
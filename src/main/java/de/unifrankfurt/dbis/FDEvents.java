@@ -0,0 +1,101 @@
+package de.unifrankfurt.dbis;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder events of the solver.
+ * Every event is disabled by default, so nothing is measured or recorded unless a recording enables it, e.g.
+ * <pre>
+ * java -XX:StartFlightRecording:filename=fd.jfr,+de.unifrankfurt.dbis.Product#enabled=true ...
+ * </pre>
+ * or a .jfc settings file that enables the events by name.
+ * Event fields are only computed if the event is going to be committed.
+ */
+final class FDEvents {
+
+    private static final String CATEGORY = "FDChecker";
+
+    private FDEvents() {
+    }
+
+    @Name("de.unifrankfurt.dbis.TransitiveClosure")
+    @Label("Transitive Closure")
+    @Description("FDRelation.transitiveClosure over every attribute")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class TransitiveClosure extends Event {
+        @Label("Attributes")
+        int attributes;
+
+        @Label("Keys Before")
+        @Description("sum of the FDKeySet sizes of the given relation")
+        int keysBefore;
+
+        @Label("Keys After")
+        @Description("sum of the FDKeySet sizes of the closure")
+        int keysAfter;
+    }
+
+    @Name("de.unifrankfurt.dbis.TransFinderRound")
+    @Label("TransFinder Round")
+    @Description("one round of FDRelation.transFinder for one attribute")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class TransFinderRound extends Event {
+        @Label("Keys")
+        @Description("size of the FDKeySet extended in this round")
+        int keys;
+
+        @Label("Adds")
+        long adds;
+
+        @Label("Rejections")
+        long rejections;
+    }
+
+    @Name("de.unifrankfurt.dbis.Product")
+    @Label("Key Product")
+    @Description("FDSolver.product of two FDKeySets")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class Product extends Event {
+        @Label("Left Size")
+        int leftSize;
+
+        @Label("Right Size")
+        int rightSize;
+
+        @Label("Result Size")
+        int resultSize;
+    }
+
+    @Name("de.unifrankfurt.dbis.NormalFormCheck")
+    @Label("Normal Form Check")
+    @Description("check of one normal form by FDSolver")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class NormalFormCheck extends Event {
+        @Label("Normal Form")
+        int normalForm;
+
+        @Label("Holds")
+        boolean holds;
+
+        @Label("Attributes")
+        int attributes;
+
+        @Label("Key Candidates")
+        int keyCandidates;
+    }
+
+    /**
+     * @return sum of the FDKeySet sizes of relation
+     */
+    static int keyCount(FDRelation relation) {
+        int count = 0;
+        for (FDKeySet keySet : relation.dataView().values()) {
+            count += keySet.size();
+        }
+        return count;
+    }
+}
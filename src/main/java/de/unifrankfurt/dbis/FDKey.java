@@ -112,8 +112,18 @@ public class FDKey implements Iterable<String> {
         return new HashSet<>(this.set);
     }
 
+    public boolean contains(String attribute) {
+        return this.set.contains(attribute);
+    }
+
+    /**
+     * compares the backing sets directly, no copy of lookUpKey is created.
+     *
+     * @param lookUpKey FDKey
+     * @return true if this contains every attribute of lookUpKey
+     */
     public boolean isSuperKeyOf(FDKey lookUpKey) {
-        return this.set.containsAll(lookUpKey.toSet());
+        return this.set.size() >= lookUpKey.set.size() && this.set.containsAll(lookUpKey.set);
     }
 
     /**
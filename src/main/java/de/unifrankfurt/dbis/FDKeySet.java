@@ -32,6 +32,19 @@ public class FDKeySet implements Collection<FDKey>{
         this.size = 0;
     }
 
+    /**
+     * copies other without checking for redundancy again.
+     *
+     * @param other FDKeySet to copy
+     */
+    public FDKeySet(FDKeySet other) {
+        this.data = new ArrayList<>(other.data.size());
+        for (HashSet<FDKey> set : other.data) {
+            this.data.add(new HashSet<>(set));
+        }
+        this.size = other.size;
+    }
+
     /**
      * @return cardinality of this
      */
@@ -104,6 +117,8 @@ public class FDKeySet implements Collection<FDKey>{
     /**
      * Custom iterator for this.
      * It is guaranteed that, this yields FDkey key only if there is no other key with smaller s
+     * Walks the HashSets of data one after another instead of copying them,
+     * so this must not be modified while iterating.
      */
     class FDKeySetIterator implements Iterator<FDKey> {
 
@@ -111,24 +126,30 @@ public class FDKeySet implements Collection<FDKey>{
         /**
          * IteratorChain of HashSets
          */
-        private final Iterator<FDKey> iter;
+        private final Iterator<HashSet<FDKey>> sets;
+
+        /**
+         * iterator of the HashSet currently walked
+         */
+        private Iterator<FDKey> iter;
 
         private FDKeySetIterator() {
-            List<FDKey> list = new ArrayList<>();
-            for (HashSet<FDKey> set : data) {
-                list.addAll(new ArrayList<>(set));
-            }
-            iter = list.iterator();
+            sets = data.iterator();
+            iter = Collections.emptyIterator();
         }
 
 
         @Override
         public boolean hasNext() {
+            while (!iter.hasNext() && sets.hasNext()) {
+                iter = sets.next().iterator();
+            }
             return iter.hasNext();
         }
 
         @Override
         public FDKey next() {
+            if (!hasNext()) throw new NoSuchElementException();
             return iter.next();
         }
     }
@@ -158,6 +179,19 @@ public class FDKeySet implements Collection<FDKey>{
 
     }
 
+    /**
+     * Adds key to this without looking for subsets or supersets of key.
+     * Only for keys that are known to be minimal in this, e.g. read from a stored FDKeySet.
+     *
+     * @param key to be added, not empty
+     */
+    void addMinimal(FDKey key) {
+        while (key.size() > this.data.size()) {
+            this.data.add(new HashSet<>());
+        }
+        this.addUnsafe(key);
+    }
+
     /**
      * Tries to add key to this.
      * Key is not added if:
@@ -177,11 +211,13 @@ public class FDKeySet implements Collection<FDKey>{
         if (key.size() == 0) return false;
         if (this.isRedundant(key)) return false;
         int s = key.size();
-        // find and remove obsolete elements.
+        // find and remove obsolete elements. Only larger FDKeys can be supersets of key.
         HashSet<FDKey> toRemove = new HashSet<>();
-        for (FDKey lookUpKey : this) {
-            if (lookUpKey.isSuperKeyOf(key)) {
-                toRemove.add(lookUpKey);
+        for (int i = s; i < this.maxInitSet(); i = i + 1) {
+            for (FDKey lookUpKey : this.data.get(i)) {
+                if (lookUpKey.isSuperKeyOf(key)) {
+                    toRemove.add(lookUpKey);
+                }
             }
         }
         this.removeAll(toRemove);
@@ -260,6 +296,12 @@ public class FDKeySet implements Collection<FDKey>{
     @Override
     public boolean removeAll(Collection collection) {
         if (collection == null) throw new NullPointerException();
+        if (collection == this) {
+            // the iterator walks the buckets this would change
+            boolean changed = !this.isEmpty();
+            this.clear();
+            return changed;
+        }
         boolean changed = false;
         for (Object o : collection) {
             changed = changed | this.remove(o);
@@ -277,6 +319,7 @@ public class FDKeySet implements Collection<FDKey>{
     @Override
     public boolean retainAll(Collection collection) {
         if (collection == null) throw new NullPointerException();
+        if (collection == this) return false;
         HashSet<FDKey> newData = new HashSet<>();
         for (Object o : collection) {
             if (this.contains(o)) newData.add((FDKey) o);
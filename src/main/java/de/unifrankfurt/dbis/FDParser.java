@@ -0,0 +1,280 @@
+package de.unifrankfurt.dbis;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Single pass parser for relations in text format.
+ * Characters are scanned directly, "->" and "->>" are always tokens of their own,
+ * attributes are separated by the delimiter. With the empty delimiter every character is an attribute.
+ * Equal attribute names are shared between all parsed dependencies.
+ * <p>
+ * Input format: an optional first line without "->" naming all attributes,
+ * then one dependency per line until an empty line or the end of input.
+ * A line with "->>" is a multivalued dependency.
+ */
+public class FDParser {
+
+    private static final String ARROW = "->";
+    private static final String MULTIVALUED_ARROW = "->>";
+
+    private final char[] delimiter;
+
+    /**
+     * maps every attribute name read so far to its shared instance
+     */
+    private final HashMap<String, String> dictionary;
+
+    /**
+     * content of the current line
+     */
+    private char[] line;
+
+    private int lineLength;
+
+    /**
+     * @param delimiter String delimiting attributes, "" if every character is an attribute
+     */
+    public FDParser(String delimiter) {
+        this.delimiter = delimiter.toCharArray();
+        this.dictionary = new HashMap<>();
+        this.line = new char[128];
+        this.lineLength = 0;
+    }
+
+    /**
+     * parses one dependency
+     *
+     * @param rel       the String to be parsed
+     * @param delimiter the delimiter of attributes
+     * @return FDSimpleRelation, empty if rel is empty
+     * @throws ParseException if rel has wrong syntax
+     */
+    public static FDSimpleRelation parseLine(String rel, String delimiter) throws ParseException {
+        FDParser parser = new FDParser(delimiter);
+        parser.line = rel.toCharArray();
+        parser.lineLength = parser.line.length;
+        return parser.parseLine(1);
+    }
+
+    /**
+     * splits a line of attributes at the delimiter
+     *
+     * @param attributes line without "->"
+     * @return every attribute of attributes in order
+     */
+    public List<String> parseAttributes(String attributes) {
+        this.line = attributes.toCharArray();
+        this.lineLength = this.line.length;
+        return this.tokens();
+    }
+
+    /**
+     * Reads relation from reader and adds every dependency to a new FDRelation while reading.
+     *
+     * @param reader     input, is not closed
+     * @param attributes forced attributes, if null the optional first line defines them
+     * @param echo       gets every read line, may be null
+     * @return FDRelation
+     * @throws IOException                        if reading fails
+     * @throws ParseException                     if a line has wrong syntax
+     * @throws FDKey.EmptyException               if a dependency has an empty key
+     * @throws FDRelation.UnexpectedAttributeException if a dependency uses an attribute not forced
+     */
+    public FDRelation read(Reader reader, List<String> attributes, Consumer<String> echo)
+            throws IOException, ParseException, FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = null;
+        int lineNumber = 0;
+        while (this.readLine(reader)) {
+            lineNumber++;
+            if (this.lineLength == 0 && lineNumber > 1) break;
+            if (echo != null) echo.accept(new String(this.line, 0, this.lineLength));
+            if (relation == null) {
+                if (!this.containsArrow()) {
+                    //attributes from parameter have higher priority
+                    if (attributes == null) attributes = this.tokens();
+                    relation = new FDRelation(attributes);
+                    continue;
+                }
+                relation = new FDRelation(attributes);
+            }
+            FDSimpleRelation simple = this.parseLine(lineNumber);
+            try {
+                relation.add(simple);
+            } catch (FDRelation.UnexpectedAttributeException e) {
+                throw relation.new UnexpectedAttributeException(e.getMessage() + " in line " + lineNumber);
+            }
+        }
+        if (relation == null) relation = new FDRelation(attributes);
+        return relation;
+    }
+
+    /**
+     * Passes every line of the relation in reader to echo without parsing it.
+     *
+     * @param reader input, is not closed
+     * @param echo   gets every read line
+     * @throws IOException if reading fails
+     */
+    public void echo(Reader reader, Consumer<String> echo) throws IOException {
+        int lineNumber = 0;
+        while (this.readLine(reader)) {
+            lineNumber++;
+            if (this.lineLength == 0 && lineNumber > 1) break;
+            echo.accept(new String(this.line, 0, this.lineLength));
+        }
+    }
+
+    /**
+     * reads the next line into line without line separator
+     *
+     * @return false if reader is at its end
+     */
+    private boolean readLine(Reader reader) throws IOException {
+        this.lineLength = 0;
+        int c = reader.read();
+        if (c == -1) return false;
+        while (c != -1 && c != '\n') {
+            if (this.lineLength == this.line.length) this.line = Arrays.copyOf(this.line, this.lineLength * 2);
+            this.line[this.lineLength++] = (char) c;
+            c = reader.read();
+        }
+        if (this.lineLength > 0 && this.line[this.lineLength - 1] == '\r') this.lineLength--;
+        return true;
+    }
+
+    private boolean containsArrow() {
+        for (int i = 0; i < this.lineLength; i++) {
+            if (this.matches(i, ARROW)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return every attribute of the current line
+     */
+    private List<String> tokens() {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        int i = 0;
+        while (i < this.lineLength) {
+            if (this.delimiter.length == 0) {
+                tokens.add(this.attribute(i, i + 1));
+                i++;
+                start = i;
+                continue;
+            }
+            int skip = this.delimiterAt(i);
+            if (skip == 0) {
+                i++;
+                continue;
+            }
+            if (i > start) tokens.add(this.attribute(start, i));
+            i += skip;
+            start = i;
+        }
+        if (i > start) tokens.add(this.attribute(start, i));
+        return tokens;
+    }
+
+    /**
+     * parses the current line
+     */
+    private FDSimpleRelation parseLine(int lineNumber) throws ParseException {
+        if (this.lineLength == 0) return new FDSimpleRelation();
+        LinkedHashSet<String> left = new LinkedHashSet<>();
+        LinkedHashSet<String> right = null;
+        LinkedHashSet<String> current = left;
+        boolean multivalued = false;
+        int start = 0;
+        int i = 0;
+        while (i < this.lineLength) {
+            if (this.matches(i, ARROW)) {
+                if (i > start) current.add(this.attribute(start, i));
+                if (right != null) throw new ParseException("second " + ARROW, lineNumber, i + 1);
+                if (left.isEmpty()) throw new ParseException("no attribute before " + ARROW, lineNumber, i + 1);
+                right = new LinkedHashSet<>();
+                current = right;
+                multivalued = this.matches(i, MULTIVALUED_ARROW);
+                i += multivalued ? MULTIVALUED_ARROW.length() : ARROW.length();
+                start = i;
+                continue;
+            }
+            if (this.delimiter.length == 0) {
+                current.add(this.attribute(i, i + 1));
+                i++;
+                start = i;
+                continue;
+            }
+            int skip = this.delimiterAt(i);
+            if (skip == 0) {
+                i++;
+                continue;
+            }
+            if (i > start) current.add(this.attribute(start, i));
+            i += skip;
+            start = i;
+        }
+        if (i > start) current.add(this.attribute(start, i));
+        if (right == null) throw new ParseException("missing " + ARROW, lineNumber, this.lineLength + 1);
+        if (right.isEmpty()) throw new ParseException("no attribute after " + ARROW, lineNumber, this.lineLength + 1);
+        return new FDSimpleRelation(left, right, multivalued);
+    }
+
+    /**
+     * @return length of delimiter at i, 0 if there is none
+     */
+    private int delimiterAt(int i) {
+        for (int j = 0; j < this.delimiter.length; j++) {
+            if (i + j >= this.lineLength || this.line[i + j] != this.delimiter[j]) return 0;
+        }
+        return this.delimiter.length;
+    }
+
+    private boolean matches(int i, String token) {
+        if (i + token.length() > this.lineLength) return false;
+        for (int j = 0; j < token.length(); j++) {
+            if (this.line[i + j] != token.charAt(j)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return shared attribute name for line[start..end)
+     */
+    private String attribute(int start, int end) {
+        String name = new String(this.line, start, end - start);
+        String shared = this.dictionary.putIfAbsent(name, name);
+        return shared == null ? name : shared;
+    }
+
+    /**
+     * exception if a line has wrong syntax
+     */
+    public static class ParseException extends Exception {
+        private final int line;
+        private final int column;
+
+        ParseException(String message, int line, int column) {
+            super("line " + line + ", column " + column + ": " + message);
+            this.line = line;
+            this.column = column;
+        }
+
+        /**
+         * @return line of error, starting at 1
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return column of error, starting at 1
+         */
+        public int getColumn() {
+            return column;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Decides for single attributes whether they are prime without enumerating every candidate key.
+ * An attribute A is prime iff some closed set C without A has (C ∪ {A})+ = every attribute:
+ * then a key found by shrinking C ∪ {A} contains A, as C alone is no superkey.
+ * The closed sets without A are searched depth first, starting at the closure of the attributes
+ * that are part of every key, and each closed set is visited once.
+ * Every attribute of a found key is remembered as prime.
+ */
+final class FDPrimeSearch {
+
+    private final FDRelation relation;
+    private final HashSet<String> attributes;
+    private final FDAttributeClosure closure;
+
+    /**
+     * every attribute used by a dependency
+     */
+    private final BitSet all;
+
+    /**
+     * attributes not determined by the others, they are part of every key
+     */
+    private final BitSet mandatory;
+
+    /**
+     * result of isPrime for every attribute decided so far
+     */
+    private final HashMap<String, Boolean> primes;
+
+    FDPrimeSearch(FDRelation relation) {
+        this.relation = relation;
+        this.attributes = relation.getAttributes();
+        this.closure = new FDAttributeClosure(relation);
+        this.all = new BitSet(this.closure.size());
+        this.all.set(0, this.closure.size());
+        this.mandatory = new BitSet(this.closure.size());
+        for (int attribute = 0; attribute < this.closure.size(); attribute++) {
+            BitSet others = (BitSet) this.all.clone();
+            others.clear(attribute);
+            if (!this.closure.closure(others).get(attribute)) this.mandatory.set(attribute);
+        }
+        this.primes = new HashMap<>();
+    }
+
+    /**
+     * @param attribute attribute of the relation
+     * @return true if attribute is part of a candidate key
+     */
+    synchronized boolean isPrime(String attribute) {
+        Boolean prime = this.primes.get(attribute);
+        if (prime != null) return prime;
+        int position = this.closure.indexOf(attribute);
+        if (position < 0) {
+            // used by no dependency, so part of every key
+            prime = this.attributes.contains(attribute);
+        } else if (this.mandatory.get(position)) {
+            prime = true;
+        } else {
+            BitSet start = this.closure.closure(this.mandatory);
+            prime = !start.get(position) && this.search(start, position, new HashSet<>());
+        }
+        this.primes.put(attribute, prime);
+        return prime;
+    }
+
+    /**
+     * @return true if key determines every attribute of the relation
+     */
+    boolean isSuperKey(Collection<String> key) {
+        return this.closure.closure(key).containsAll(this.attributes);
+    }
+
+    /**
+     * Checks the definition of 3NF on the given dependencies: for every X -> A with A not in X,
+     * X is a superkey or A is prime. Only the right sides that are no superkey dependencies
+     * are searched for a key, so most attributes are never tested.
+     *
+     * @return true if relation is in third normal form
+     */
+    boolean is3NF() {
+        for (Map.Entry<FDKey, HashSet<String>> entry : this.relation.getDictKeyToAttribute().entrySet()) {
+            Set<String> key = entry.getKey().toSet();
+            HashSet<String> values = new HashSet<>(entry.getValue());
+            values.removeAll(key);
+            if (values.isEmpty() || this.isSuperKey(key)) continue;
+            for (String value : values) {
+                if (!this.isPrime(value)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param closed   closed set without attribute
+     * @param visited  closed sets searched already
+     * @return true if closed or a closed superset of it without attribute is a key once attribute is added
+     */
+    private boolean search(BitSet closed, int attribute, HashSet<BitSet> visited) {
+        BitSet candidate = (BitSet) closed.clone();
+        candidate.set(attribute);
+        if (this.closure.closure(candidate).equals(this.all)) {
+            this.rememberKey(candidate);
+            return true;
+        }
+        for (int next = closed.nextClearBit(0); next < this.closure.size(); next = closed.nextClearBit(next + 1)) {
+            if (next == attribute) continue;
+            BitSet extended = (BitSet) closed.clone();
+            extended.set(next);
+            extended = this.closure.closure(extended);
+            if (extended.get(attribute) || !visited.add(extended)) continue;
+            if (this.search(extended, attribute, visited)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * shrinks superKey to a candidate key and marks its attributes as prime
+     */
+    private void rememberKey(BitSet superKey) {
+        BitSet key = (BitSet) superKey.clone();
+        for (int attribute = key.nextSetBit(0); attribute >= 0; attribute = key.nextSetBit(attribute + 1)) {
+            key.clear(attribute);
+            if (!this.closure.closure(key).equals(this.all)) key.set(attribute);
+        }
+        for (String attribute : this.attributes) {
+            int position = this.closure.indexOf(attribute);
+            if (position >= 0 && key.get(position)) this.primes.put(attribute, true);
+        }
+    }
+}
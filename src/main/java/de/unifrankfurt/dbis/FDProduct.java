@@ -0,0 +1,215 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Minimal unions of one FDKey of each of two FDKeySets, the hot loop of the key candidate search.
+ * Keys are encoded as bitsets over the attributes of both FDKeySets, so a union is tested for
+ * redundancy with word wise subset tests before any FDKey is allocated for it.
+ * A row whose key already contains a key of the other FDKeySet yields only that key.
+ * Large products split the rows into chunks, every chunk collects its own minimal set
+ * and the minimal sets are merged at the end.
+ */
+final class FDProduct {
+
+    private final String[] names;
+    private final int words;
+    private final long[][] left;
+    private final long[][] right;
+    private final int[] rightSizes;
+
+    private FDProduct(FDKeySet keySet1, FDKeySet keySet2) {
+        HashMap<String, Integer> index = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (FDKeySet keySet : List.of(keySet1, keySet2)) {
+            for (FDKey key : keySet) {
+                for (String attribute : key) {
+                    if (index.putIfAbsent(attribute, names.size()) == null) names.add(attribute);
+                }
+            }
+        }
+        this.names = names.toArray(new String[0]);
+        this.words = (this.names.length + 63) / 64;
+        this.left = this.encode(keySet1, index);
+        this.right = this.encode(keySet2, index);
+        this.rightSizes = new int[this.right.length];
+        for (int i = 0; i < this.right.length; i++) {
+            this.rightSizes[i] = cardinality(this.right[i]);
+        }
+    }
+
+    /**
+     * @param context records product sizes and FDKeySet changes, stops if its budget is exhausted
+     * @return FDKeySet of every minimal union of a FDKey in keySet1 and a FDKey in keySet2
+     */
+    static FDKeySet product(FDKeySet keySet1, FDKeySet keySet2, FDSolverContext context) {
+        long pairs = (long) keySet1.size() * keySet2.size();
+        int chunks = 1;
+        if (pairs >= FDSolver.PARALLEL_PRODUCT_PAIRS) chunks = 4 * Runtime.getRuntime().availableProcessors();
+        return product(keySet1, keySet2, context, chunks);
+    }
+
+    /**
+     * @param chunks count of row ranges merged in parallel, at most one per FDKey of keySet1
+     * @return FDKeySet of every minimal union of a FDKey in keySet1 and a FDKey in keySet2
+     */
+    static FDKeySet product(FDKeySet keySet1, FDKeySet keySet2, FDSolverContext context, int chunks) {
+        FDProduct product = new FDProduct(keySet1, keySet2);
+        long pairs = (long) keySet1.size() * keySet2.size();
+        int chunkCount = Math.max(1, Math.min(chunks, keySet1.size()));
+        int rows = product.left.length;
+        MinimalSet result = IntStream.range(0, chunkCount).parallel()
+                .mapToObj(chunk -> product.rows(chunk * rows / chunkCount, (chunk + 1) * rows / chunkCount, context))
+                .reduce(MinimalSet::merge)
+                .orElseGet(MinimalSet::new);
+        context.count(FDSolverStats.Counter.PRODUCT_PAIRS, pairs);
+        context.count(FDSolverStats.Counter.KEYSET_ADDS, result.adds);
+        context.count(FDSolverStats.Counter.KEYSET_REJECTIONS, pairs - result.adds);
+        return product.decode(result);
+    }
+
+    /**
+     * @return minimal set of the unions of rows from until to
+     */
+    private MinimalSet rows(int from, int to, FDSolverContext context) {
+        MinimalSet result = new MinimalSet();
+        long[] union = new long[this.words];
+        for (int row = from; row < to; row++) {
+            long before = result.adds;
+            long[] key1 = this.left[row];
+            int size1 = cardinality(key1);
+            if (this.containsRightKey(key1)) {
+                // every other union of this row is a superset of key1
+                if (!result.isRedundant(key1, size1)) result.add(key1, size1);
+            } else {
+                for (int i = 0; i < this.right.length; i++) {
+                    long[] key2 = this.right[i];
+                    int size = size1 + this.rightSizes[i];
+                    for (int w = 0; w < this.words; w++) {
+                        union[w] = key1[w] | key2[w];
+                        size -= Long.bitCount(key1[w] & key2[w]);
+                    }
+                    if (result.isRedundant(union, size)) continue;
+                    result.add(union.clone(), size);
+                }
+            }
+            context.check(result.adds - before);
+        }
+        return result;
+    }
+
+    private boolean containsRightKey(long[] key1) {
+        for (long[] key2 : this.right) {
+            if (isSubset(key2, key1)) return true;
+        }
+        return false;
+    }
+
+    private long[][] encode(FDKeySet keySet, HashMap<String, Integer> index) {
+        long[][] keys = new long[keySet.size()][];
+        int i = 0;
+        for (FDKey key : keySet) {
+            long[] bits = new long[this.words];
+            for (String attribute : key) {
+                int position = index.get(attribute);
+                bits[position >>> 6] |= 1L << position;
+            }
+            keys[i++] = bits;
+        }
+        return keys;
+    }
+
+    private FDKeySet decode(MinimalSet minimal) {
+        FDKeySet result = new FDKeySet();
+        for (List<long[]> keys : minimal.bySize) {
+            for (long[] bits : keys) {
+                Set<String> key = new HashSet<>();
+                for (int w = 0; w < bits.length; w++) {
+                    for (long word = bits[w]; word != 0; word &= word - 1) {
+                        key.add(this.names[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                    }
+                }
+                result.addMinimal(new FDKey(key));
+            }
+        }
+        return result;
+    }
+
+    private static int cardinality(long[] bits) {
+        int size = 0;
+        for (long word : bits) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return true if every bit of a is set in b
+     */
+    private static boolean isSubset(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            if ((a[w] & ~b[w]) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * bitsets of which none is a subset of another, bucketed by cardinality like FDKeySet
+     */
+    private static final class MinimalSet {
+        private final List<List<long[]>> bySize;
+
+        /**
+         * count of unions accepted by add while collecting the rows, merges keep the sum
+         */
+        private long adds;
+
+        private MinimalSet() {
+            this.bySize = new ArrayList<>();
+        }
+
+        /**
+         * @return true if a subset of bits with the given cardinality is stored already
+         */
+        private boolean isRedundant(long[] bits, int size) {
+            for (int s = 0; s < size && s < this.bySize.size(); s++) {
+                for (long[] stored : this.bySize.get(s)) {
+                    if (isSubset(stored, bits)) return true;
+                }
+            }
+            // equal cardinality: only equal bitsets are subsets
+            if (size < this.bySize.size()) {
+                for (long[] stored : this.bySize.get(size)) {
+                    if (Arrays.equals(stored, bits)) return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * adds bits and removes its supersets, bits must not be redundant
+         */
+        private void add(long[] bits, int size) {
+            for (int s = size + 1; s < this.bySize.size(); s++) {
+                this.bySize.get(s).removeIf(stored -> isSubset(bits, stored));
+            }
+            while (this.bySize.size() <= size) {
+                this.bySize.add(new ArrayList<>());
+            }
+            this.bySize.get(size).add(bits);
+            this.adds++;
+        }
+
+        private MinimalSet merge(MinimalSet other) {
+            long adds = this.adds + other.adds;
+            for (int s = 0; s < other.bySize.size(); s++) {
+                for (long[] bits : other.bySize.get(s)) {
+                    if (!this.isRedundant(bits, s)) this.add(bits, s);
+                }
+            }
+            this.adds = adds;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package de.unifrankfurt.dbis;
+
+/**
+ * Gets notified about the progress of FDSolver.createFDSolver.
+ * The transitive closure is searched on several threads, so implementations have to be thread safe.
+ * Every method should return fast, as it is called inside the loops of the solver.
+ */
+public interface FDProgressListener {
+
+    /**
+     * ignores everything
+     */
+    FDProgressListener NONE = new FDProgressListener() {
+    };
+
+    default void phaseStarted(FDSolverStats.Phase phase) {
+    }
+
+    /**
+     * @param phase     finished phase
+     * @param wallNanos wall time of phase, 0 if statistics are disabled
+     */
+    default void phaseFinished(FDSolverStats.Phase phase, long wallNanos) {
+    }
+
+    /**
+     * called after every round of the transitive closure search of one attribute
+     *
+     * @param attribute whose determining keys are searched
+     * @param round     number of the round, starting at 1
+     * @param frontier  keys found so far, extended by the next round
+     */
+    default void closureRound(String attribute, int round, int frontier) {
+    }
+
+    /**
+     * called after the keys of one more attribute are merged into the key candidates
+     *
+     * @param attributesDone  attributes merged so far
+     * @param attributesTotal attributes to merge
+     * @param keys            current count of key candidates
+     */
+    default void keysFound(int attributesDone, int attributesTotal, int keys) {
+    }
+}
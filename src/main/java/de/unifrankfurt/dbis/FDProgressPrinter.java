@@ -0,0 +1,62 @@
+package de.unifrankfurt.dbis;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FDProgressListener that prints progress lines.
+ * Start and end of every phase are always printed, closure rounds and found keys
+ * at most once per interval, so even millions of rounds produce few lines.
+ */
+public class FDProgressPrinter implements FDProgressListener {
+
+    private final PrintStream out;
+    private final long intervalNanos;
+    private long lastPrint;
+
+    /**
+     * @param out            target, e.g. System.err
+     * @param intervalMillis min time between two throttled lines
+     */
+    public FDProgressPrinter(PrintStream out, long intervalMillis) {
+        this.out = out;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.lastPrint = System.nanoTime();
+    }
+
+    @Override
+    public synchronized void phaseStarted(FDSolverStats.Phase phase) {
+        this.out.println("[progress] " + phase + " started");
+    }
+
+    @Override
+    public synchronized void phaseFinished(FDSolverStats.Phase phase, long wallNanos) {
+        this.out.println("[progress] " + phase + " finished in " + TimeUnit.NANOSECONDS.toMillis(wallNanos) + " ms");
+    }
+
+    @Override
+    public void closureRound(String attribute, int round, int frontier) {
+        if (!this.due()) return;
+        this.print("[progress] closure of " + attribute + ": round " + round + ", " + frontier + " keys");
+    }
+
+    @Override
+    public void keysFound(int attributesDone, int attributesTotal, int keys) {
+        if (!this.due()) return;
+        this.print("[progress] key candidates: " + attributesDone + "/" + attributesTotal + " attributes, " + keys + " keys");
+    }
+
+    /**
+     * @return true if the interval since the last throttled line has passed, the caller has to print then
+     */
+    private synchronized boolean due() {
+        long now = System.nanoTime();
+        if (now - this.lastPrint < this.intervalNanos) return false;
+        this.lastPrint = now;
+        return true;
+    }
+
+    private synchronized void print(String line) {
+        this.out.println(line);
+    }
+}
@@ -1,6 +1,11 @@
 package de.unifrankfurt.dbis;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An minimized effective storage for a multiline relation.
@@ -12,6 +17,11 @@ import java.util.*;
  */
 public class FDRelation {
 
+    /**
+     * max count of cached closures and dependency lookups
+     */
+    static final int CLOSURE_CACHE_SIZE = 1024;
+
     private final HashSet<String> forcedAttributes;
     /**
      * data stores for each attribute every (minimal) FDKey that a relation maps to it.
@@ -21,6 +31,31 @@ public class FDRelation {
      * attributes stores every attribute that occurs in the relation.
      */
     private HashSet<String> attributes;
+    /**
+     * results of attributeClosure and getDependenciesOf, created on first use and cleared by dataUpdate
+     */
+    private FDClosureCache closureCache;
+    /**
+     * dependencies by their key attributes, created on first use and updated by dataUpdate
+     */
+    private FDDependencyIndex dependencyIndex;
+    /**
+     * FDKeySets of data also used by a snapshot, copied by dataUpdate before they are changed
+     */
+    private Set<FDKeySet> shared;
+    /**
+     * true for snapshots, which reject every change
+     */
+    private boolean immutable;
+    /**
+     * true if this was created by reflexive and every attribute still depends on itself,
+     * kept by transitiveClosure and extendClosure
+     */
+    private boolean reflexive;
+    /**
+     * multivalued dependencies key ->> values, only used by FDDependencyBasis
+     */
+    private HashSet<FDSimpleRelation> multivalued = new HashSet<>();
 
     FDRelation() {
         this.attributes = new HashSet<>();
@@ -56,24 +91,122 @@ public class FDRelation {
     }
 
     private FDRelation(HashMap<String, FDKeySet> data, HashSet<String> attributes){
+        this(data, attributes, attributes);
+    }
+
+    /**
+     * uses the given collections directly
+     *
+     * @param data             minimal FDKeySet for every attribute
+     * @param attributes       every attribute
+     * @param forcedAttributes fixed relation schema or null
+     */
+    FDRelation(HashMap<String, FDKeySet> data, HashSet<String> attributes, HashSet<String> forcedAttributes) {
         this.data = data;
         this.attributes = attributes;
-        this.forcedAttributes = attributes;
+        this.forcedAttributes = forcedAttributes;
     }
 
+    /**
+     * creates an immutable copy of this in time linear to the count of attributes.
+     * The FDKeySets are shared with this until this changes them, so a snapshot can be read
+     * by many threads without locks while dependencies are still added to this.
+     *
+     * @return immutable FDRelation with the current dependencies, this if this is a snapshot already
+     */
+    public synchronized FDRelation snapshot() {
+        if (this.immutable) return this;
+        HashSet<String> forcedAttributes = this.forcedAttributes == null ? null : new HashSet<>(this.forcedAttributes);
+        FDRelation snapshot = this.share(new HashSet<>(this.attributes), forcedAttributes);
+        snapshot.immutable = true;
+        return snapshot;
+    }
+
+    /**
+     * @return new FDRelation using the FDKeySets of this, each of both copies a FDKeySet before changing it
+     */
+    private synchronized FDRelation share(HashSet<String> attributes, HashSet<String> forcedAttributes) {
+        if (this.shared == null) this.shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        this.shared.addAll(this.data.values());
+        FDRelation relation = new FDRelation(new HashMap<>(this.data), attributes, forcedAttributes);
+        relation.multivalued = new HashSet<>(this.multivalued);
+        relation.reflexive = this.reflexive;
+        relation.shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        relation.shared.addAll(relation.data.values());
+        return relation;
+    }
+
+    /**
+     * @return FDKeySet of attribute in data that may be changed, copied first if it is shared
+     */
+    private FDKeySet ownKeySet(String attribute) {
+        FDKeySet keySet = this.data.get(attribute);
+        if (keySet == null) {
+            keySet = new FDKeySet();
+        } else if (this.shared != null && this.shared.remove(keySet)) {
+            keySet = new FDKeySet(keySet);
+        } else {
+            return keySet;
+        }
+        this.data.put(attribute, keySet);
+        return keySet;
+    }
+
+    /**
+     * @return true if this is a snapshot and can not be changed
+     */
+    public boolean isImmutable() {
+        return immutable;
+    }
+
+    /**
+     * @return fixed relation schema or null, a copy for snapshots
+     */
     public HashSet<String> getForcedAttributes() {
+        if (this.immutable && this.forcedAttributes != null) return new HashSet<>(this.forcedAttributes);
         return forcedAttributes;
     }
 
-    public HashMap<String, FDKeySet> getData() {
+    /**
+     * A snapshot returns a copy, so changes to it reach neither the snapshot nor its original.
+     * Any other FDRelation first copies every FDKeySet it shares with a snapshot or extendClosure,
+     * so changes through the returned map only reach this, and drops its dependency index
+     * and cached closures, which are computed from data again on next use.
+     *
+     * @return minimal FDKeySet for every attribute
+     */
+    public synchronized HashMap<String, FDKeySet> getData() {
+        if (this.immutable) {
+            HashMap<String, FDKeySet> copy = new HashMap<>();
+            for (Map.Entry<String, FDKeySet> entry : this.data.entrySet()) {
+                copy.put(entry.getKey(), new FDKeySet(entry.getValue()));
+            }
+            return copy;
+        }
+        if (this.shared != null && !this.shared.isEmpty()) {
+            for (String attribute : new ArrayList<>(this.data.keySet())) {
+                this.ownKeySet(attribute);
+            }
+        }
+        this.dependencyIndex = null;
+        if (this.closureCache != null) this.closureCache.invalidate();
         return data;
     }
 
+    /**
+     * read only view of data for streaming it, neither copies FDKeySets like getData nor takes them
+     * from a snapshot. The FDKeySets must not be changed.
+     *
+     * @return unmodifiable map of the minimal FDKeySet of every attribute
+     */
+    Map<String, FDKeySet> dataView() {
+        return Collections.unmodifiableMap(this.data);
+    }
+
     public FDRelation parse(String rel, String delimiter) throws FDKey.EmptyException, UnexpectedAttributeException {
         FDSimpleRelation sRel = FDSimpleRelation.parse(rel, delimiter);
         if (sRel == null) return null;
-        this.dataUpdate(sRel.key, sRel.values);
-        return this;
+        return this.add(sRel);
     }
 
     /**
@@ -87,13 +220,14 @@ public class FDRelation {
     }
 
     /**
-     * adds dependencies from sRel to this
+     * adds dependencies from sRel to this, a multivalued sRel is stored as it is
      *
      * @param sRel FDSimpleRelation
      * @return this
      */
     public FDRelation add(FDSimpleRelation sRel) throws FDKey.EmptyException, UnexpectedAttributeException {
-        this.dataUpdate(sRel.key, sRel.values);
+        if (sRel.isMultivalued()) this.multivaluedUpdate(sRel.key, sRel.values);
+        else this.dataUpdate(sRel.key, sRel.values);
         return this;
     }
 
@@ -111,6 +245,9 @@ public class FDRelation {
                 this.dataUpdate(key, set);
             }
         }
+        for (FDSimpleRelation mvd : rel.getMultivaluedDependencies()) {
+            this.multivaluedUpdate(mvd.key, mvd.values);
+        }
         return this;
     }
 
@@ -138,19 +275,34 @@ public class FDRelation {
      *
      * @param key FDKey
      */
-    private void dataUpdate(FDKey key, Collection<String> values) throws FDKey.EmptyException, UnexpectedAttributeException {
+    private synchronized void dataUpdate(FDKey key, Collection<String> values) throws FDKey.EmptyException, UnexpectedAttributeException {
+        if (this.immutable) throw new UnsupportedOperationException("snapshot of FDRelation can not be changed");
+        if (this.closureCache != null) this.closureCache.invalidate();
         for (String s : values) {
-            FDKeySet keySet;
-            if (this.data.containsKey(s)) {
-                keySet = this.data.get(s);
-            } else {
-                keySet = new FDKeySet();
-            }
             if (key.isEmpty()) throw new FDKey.EmptyException();
-            keySet.add(key);
-            this.data.put(s, keySet);
+            FDKeySet keySet = this.ownKeySet(s);
+            if (keySet.add(key) && this.dependencyIndex != null) this.dependencyIndex.added(key, s);
         }
 
+        this.attributesUpdate(key, values);
+    }
+
+    /**
+     * stores the multivalued dependency key ->> values, it is not part of data and the closures
+     *
+     * @param key FDKey
+     */
+    private synchronized void multivaluedUpdate(FDKey key, Collection<String> values) throws FDKey.EmptyException, UnexpectedAttributeException {
+        if (this.immutable) throw new UnsupportedOperationException("snapshot of FDRelation can not be changed");
+        if (key.isEmpty()) throw new FDKey.EmptyException();
+        this.multivalued.add(new FDSimpleRelation(key.toSet(), values, true));
+        this.attributesUpdate(key, values);
+    }
+
+    /**
+     * checks for unexpected attributes and adds the attributes of key and values to attributes
+     */
+    private void attributesUpdate(FDKey key, Collection<String> values) throws UnexpectedAttributeException {
         // test for unexpected attribute
 
         if (this.forcedAttributes != null) {
@@ -162,15 +314,55 @@ public class FDRelation {
                 throw new UnexpectedAttributeException(new ArrayList<>(conflict).toString());
             }
         }
-        // add new attributes
-        this.attributes.addAll(key.toSet());
-        this.attributes.addAll(values);
+        // add new attributes, which do not depend on themselves
+        boolean added = this.attributes.addAll(key.toSet());
+        added |= this.attributes.addAll(values);
+        if (added) this.reflexive = false;
+    }
+
+    /**
+     * @return every multivalued dependency added to this
+     */
+    public Set<FDSimpleRelation> getMultivaluedDependencies() {
+        return Collections.unmodifiableSet(this.multivalued);
     }
 
     public FDSolver solve() {
         return FDSolver.createFDSolver(this);
     }
 
+    /**
+     * writes this in the binary format of FDBinaryFormat
+     *
+     * @param out OutputStream, is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void writeBinary(OutputStream out) throws IOException {
+        FDBinaryFormat.write(this, out);
+    }
+
+    /**
+     * reads a FDRelation written by writeBinary
+     *
+     * @param buffer binary data, its position is moved behind the relation
+     * @return FDRelation
+     * @throws IOException if buffer does not contain a valid relation
+     */
+    public static FDRelation readBinary(ByteBuffer buffer) throws IOException {
+        return FDBinaryFormat.readRelation(buffer);
+    }
+
+    /**
+     * reads a FDRelation from a file written by writeBinary. The file is mapped into memory.
+     *
+     * @param path file
+     * @return FDRelation
+     * @throws IOException if file does not contain a valid relation
+     */
+    public static FDRelation readBinary(Path path) throws IOException {
+        return FDBinaryFormat.readRelation(FDBinaryFormat.map(path));
+    }
+
     class UnexpectedAttributeException extends Exception {
 
         UnexpectedAttributeException(String s) {
@@ -213,6 +405,12 @@ public class FDRelation {
                     .append(entry.getValue().toString())
                     .append("\n");
         }
+        for (FDSimpleRelation mvd : this.multivalued) {
+            sb = sb.append(mvd.key.toSet().toString())
+                    .append(" ->> ")
+                    .append(mvd.values.toString())
+                    .append("\n");
+        }
         return sb.toString();
     }
 
@@ -253,14 +451,37 @@ public class FDRelation {
      * @return Hash<String> with each attribute where dependency key -> attribute exists.
      */
     public HashSet<String> getDependenciesOf(FDKey key) {
-        HashSet<String> set = new HashSet<>();
-        for (String attribute : this.data.keySet()) {
-            FDKeySet keySet = this.data.get(attribute);
-            for (FDKey lookUpKey : keySet) {
-                if (key.isSuperKeyOf(lookUpKey)) set.add(attribute);
-            }
-        }
-        return set;
+        return this.closureCache().dependenciesOf(key, this.dependencyIndex()::dependenciesOf);
+    }
+
+    /**
+     * created from data on first use after getData handed out data
+     */
+    synchronized FDDependencyIndex dependencyIndex() {
+        if (this.dependencyIndex == null) this.dependencyIndex = new FDDependencyIndex(this.data);
+        return this.dependencyIndex;
+    }
+
+    /**
+     * @return count of attributeClosure and getDependenciesOf calls answered from the cache
+     */
+    public long getClosureCacheHits() {
+        return this.closureCache().getHits();
+    }
+
+    /**
+     * @return count of attributeClosure and getDependenciesOf calls computed and put into the cache
+     */
+    public long getClosureCacheMisses() {
+        return this.closureCache().getMisses();
+    }
+
+    /**
+     * cleared by dataUpdate and getData
+     */
+    private synchronized FDClosureCache closureCache() {
+        if (this.closureCache == null) this.closureCache = new FDClosureCache(this, CLOSURE_CACHE_SIZE);
+        return this.closureCache;
     }
 
     /**
@@ -284,29 +505,140 @@ public class FDRelation {
     }
 
 
+    /**
+     * splits this into groups of attributes connected by dependencies, so that no dependency
+     * uses attributes of two groups. Attributes in no dependency form a component of their own.
+     *
+     * @return every component as FDRelation with the dependencies of its attributes, ordered by smallest attribute
+     */
+    public List<FDRelation> components() {
+        HashMap<String, String> parent = new HashMap<>();
+        for (String attribute : this.attributes) {
+            parent.put(attribute, attribute);
+        }
+        for (Map.Entry<String, FDKeySet> entry : this.data.entrySet()) {
+            for (FDKey key : entry.getValue()) {
+                for (String attribute : key) {
+                    String rootA = find(parent, entry.getKey());
+                    String rootB = find(parent, attribute);
+                    if (!rootA.equals(rootB)) parent.put(rootA, rootB);
+                }
+            }
+        }
+        TreeMap<String, HashSet<String>> groups = new TreeMap<>();
+        for (String attribute : new TreeSet<>(parent.keySet())) {
+            String root = find(parent, attribute);
+            groups.computeIfAbsent(root, r -> new HashSet<>()).add(attribute);
+        }
+        List<FDRelation> components = new ArrayList<>();
+        for (HashSet<String> group : groups.values()) {
+            HashMap<String, FDKeySet> componentData = new HashMap<>();
+            for (String attribute : group) {
+                if (this.data.containsKey(attribute)) componentData.put(attribute, new FDKeySet(this.data.get(attribute)));
+            }
+            components.add(new FDRelation(componentData, group));
+        }
+        components.sort(Comparator.comparing(c -> Collections.min(c.attributes)));
+        return components;
+    }
+
+    private static String find(HashMap<String, String> parent, String attribute) {
+        String root = parent.computeIfAbsent(attribute, a -> a);
+        while (!root.equals(parent.get(root))) {
+            root = parent.get(root);
+        }
+        parent.put(attribute, root);
+        return root;
+    }
+
+    /**
+     * computes the closure attributes+ in linear time without building the transitive closure.
+     *
+     * @param attributes start set
+     * @return every attribute determined by attributes, including attributes
+     */
+    public HashSet<String> attributeClosure(Collection<String> attributes) {
+        return this.closureCache().closure(attributes);
+    }
+
+    /**
+     * @param key        left side
+     * @param attributes right side
+     * @return true if key -> attributes follows from the dependencies of this
+     */
+    public boolean implies(FDKey key, Set<String> attributes) {
+        return this.closureCache().attributeClosure().implies(key.toSet(), attributes);
+    }
+
+    /**
+     * @param other FDRelation
+     * @return true if this and other imply each other, i.e. have the same transitive closure
+     */
+    public boolean isEquivalentTo(FDRelation other) {
+        return this.dependenciesNotImplied(other).isEmpty() && other.dependenciesNotImplied(this).isEmpty();
+    }
+
+    /**
+     * @param other FDRelation
+     * @return every dependency of other which does not follow from this, one per key
+     */
+    public List<FDSimpleRelation> dependenciesNotImplied(FDRelation other) {
+        FDAttributeClosure closure = this.closureCache().attributeClosure();
+        List<FDSimpleRelation> missing = new ArrayList<>();
+        for (Map.Entry<FDKey, HashSet<String>> entry : other.getDictKeyToAttribute().entrySet()) {
+            Set<String> key = entry.getKey().toSet();
+            if (closure.implies(key, entry.getValue())) continue;
+            HashSet<String> values = new HashSet<>(entry.getValue());
+            values.removeAll(closure.closure(key));
+            missing.add(new FDSimpleRelation(key, values));
+        }
+        return missing;
+    }
+
     /**
      * adds every transitive dependency from this to new FDRelation.
      *
      * @return FDRelation
      */
     public FDRelation transitiveClosure() {
-        return this.transitiveClosure(this);
+        return this.transitiveClosure(this, FDSolverContext.DISABLED);
     }
 
     /**
-     * adds every transitive dependency from fDR to new FDRelation.
+     * adds every transitive dependency from this to new FDRelation.
      *
+     * @param context records closure rounds and FDKeySet changes, stops if its budget is exhausted
      * @return FDRelation
      */
-    private FDRelation transitiveClosure(FDRelation fDR) {
+    FDRelation transitiveClosure(FDSolverContext context) {
+        return this.transitiveClosure(this, context);
+    }
 
-        HashMap<String, FDKeySet> newData = new HashMap<>();
-        for (String a : fDR.getAttributes()) {
-            FDKeySet f = fDR.transFinder(a);
-            if (f.isEmpty()) continue;
-            newData.put(a, f);
+    /**
+     * adds every transitive dependency from fDR to new FDRelation.
+     * The FDKeySet of each attribute is independent of the others, so every attribute
+     * is searched as own task on the common ForkJoinPool. fDR is only read meanwhile.
+     *
+     * @return FDRelation
+     */
+    private FDRelation transitiveClosure(FDRelation fDR, FDSolverContext context) {
+        FDEvents.TransitiveClosure event = new FDEvents.TransitiveClosure();
+        event.begin();
+        ConcurrentHashMap<String, FDKeySet> newData = new ConcurrentHashMap<>();
+        fDR.getAttributes().parallelStream().forEach(a -> {
+            FDKeySet f = fDR.transFinder(a, context);
+            if (!f.isEmpty()) newData.put(a, f);
+        });
+        FDRelation closure = new FDRelation(new HashMap<>(newData), fDR.getAttributes());
+        closure.reflexive = fDR.reflexive;
+        event.end();
+        if (event.shouldCommit()) {
+            event.attributes = fDR.getAttributes().size();
+            event.keysBefore = FDEvents.keyCount(fDR);
+            event.keysAfter = FDEvents.keyCount(closure);
+            event.commit();
         }
-        return new FDRelation(newData,fDR.getAttributes());
+        return closure;
     }
 
     /**
@@ -315,9 +647,65 @@ public class FDRelation {
      * @return FDRelation
      */
     public FDRelation transitiveClosureReflexive() {
-        return this.transitiveClosure(this.reflexive());
+        return this.transitiveClosure(this.reflexive(), FDSolverContext.DISABLED);
+    }
+
+
+    /**
+     * Extends this transitive closure by key -> values without computing the closure from scratch.
+     * Only values and attributes which have an FDKey containing one of values can gain new
+     * dependencies, so transFinder is rerun for those attributes only. Every other FDKeySet is copied.
+     * If this is a reflexive closure, new attributes also get their reflexive dependency.
+     * Attributes not yet contained in this are accepted.
+     *
+     * @param key    the "left side" of the new dependency
+     * @param values the "right side" of the new dependency
+     * @return new FDRelation, the transitive closure of this and key -> values
+     * @throws FDKey.EmptyException if key is empty
+     */
+    public FDRelation extendClosure(FDKey key, Collection<String> values) throws FDKey.EmptyException {
+        if (key.isEmpty()) throw new FDKey.EmptyException();
+        HashSet<String> newAttributes = new HashSet<>(this.attributes);
+        newAttributes.addAll(key.toSet());
+        newAttributes.addAll(values);
+        // unchanged FDKeySets are shared with this
+        FDRelation extended = this.share(newAttributes, newAttributes);
+        if (extended.reflexive) {
+            for (String attribute : newAttributes) {
+                if (this.attributes.contains(attribute)) continue;
+                extended.ownKeySet(attribute).add(new FDKey(attribute));
+            }
+        }
+        for (String value : values) {
+            extended.ownKeySet(value).add(key);
+        }
+
+        // any new minimal FDKey of an attribute has to replace a value in one of its old FDKeys
+        HashSet<String> affected = new HashSet<>(values);
+        for (Map.Entry<String, FDKeySet> entry : this.data.entrySet()) {
+            for (FDKey lookUpKey : entry.getValue()) {
+                if (!Collections.disjoint(lookUpKey.toSet(), values)) {
+                    affected.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        ConcurrentHashMap<String, FDKeySet> updated = new ConcurrentHashMap<>();
+        affected.parallelStream().forEach(a -> updated.put(a, extended.transFinder(a)));
+        extended.data.putAll(updated);
+        return extended;
     }
 
+    /**
+     * extends this transitive closure by sRel.
+     *
+     * @param sRel FDSimpleRelation
+     * @return new FDRelation, the transitive closure of this and sRel
+     * @throws FDKey.EmptyException if key of sRel is empty
+     */
+    public FDRelation extendClosure(FDSimpleRelation sRel) throws FDKey.EmptyException {
+        return this.extendClosure(sRel.key, sRel.values);
+    }
 
     public FDRelation reflexive(){
         HashMap<String, FDKeySet> newData = new HashMap<>();
@@ -330,7 +718,9 @@ public class FDRelation {
             }
             newData.put(attribute,val);
         }
-        return new FDRelation(newData,attributes);
+        FDRelation relation = new FDRelation(newData,attributes);
+        relation.reflexive = true;
+        return relation;
     }
 
     /**
@@ -338,27 +728,45 @@ public class FDRelation {
      * @return FDKeySet with FDKeys that have transitive dependency to attribute
      */
     public FDKeySet transFinder(String attribute) {
+        return this.transFinder(attribute, FDSolverContext.DISABLED);
+    }
+
+    /**
+     * @param attribute to lookup
+     * @param context   records closure rounds and FDKeySet changes, stops if its budget is exhausted
+     * @return FDKeySet with FDKeys that have transitive dependency to attribute
+     */
+    FDKeySet transFinder(String attribute, FDSolverContext context) {
         FDKeySet set;
         if (!this.data.containsKey(attribute)) {
             set = new FDKeySet();
         } else {
             set = this.data.get(attribute);
         }
-        return transFinder(set);
+        return transFinder(attribute, set, 1, context);
     }
 
     /**
      * search for FDKeys that have a dependency to any attribute in keySet.
      * If keys are found that are not in keySet, transFinder recursively searches for new dependencies with the newly found keys.
      *
-     * @param keySet to extend transitive
+     * @param attribute whose keys are searched, for progress only
+     * @param keySet    to extend transitive
+     * @param round     number of this round, starting at 1
      * @return FDKeySet with FDKeys that have transitive dependency to an FDKey in keySet
      */
-    private FDKeySet transFinder(FDKeySet keySet) {
+    private FDKeySet transFinder(String attribute, FDKeySet keySet, int round, FDSolverContext context) {
+        FDEvents.TransFinderRound event = new FDEvents.TransFinderRound();
+        event.begin();
         FDKeySet alternatives = new FDKeySet();
         alternatives.addAll(keySet);
         boolean foundSomething = false;
+        long adds = 0;
+        long rejections = 0;
+        long checkedAdds = 0;
         for (FDKey fdkey : keySet) {
+            context.check(adds - checkedAdds);
+            checkedAdds = adds;
             for (String att : fdkey) {
                 if (this.data.containsKey(att)) {
                     for (FDKey possibles : this.data.get(att)) {
@@ -366,12 +774,26 @@ public class FDRelation {
                         altSet.remove(att);
                         altSet.addAll(possibles.toSet());
                         boolean added = alternatives.add(new FDKey(altSet));
+                        if (added) adds++;
+                        else rejections++;
                         foundSomething = foundSomething || added;
                     }
                 }
             }
         }
-        if (foundSomething) return transFinder(alternatives);
+        context.check(adds - checkedAdds);
+        context.count(FDSolverStats.Counter.CLOSURE_ROUNDS, 1);
+        context.count(FDSolverStats.Counter.KEYSET_ADDS, adds);
+        context.count(FDSolverStats.Counter.KEYSET_REJECTIONS, rejections);
+        context.closureRound(attribute, round, alternatives.size());
+        event.end();
+        if (event.shouldCommit()) {
+            event.keys = keySet.size();
+            event.adds = adds;
+            event.rejections = rejections;
+            event.commit();
+        }
+        if (foundSomething) return transFinder(attribute, alternatives, round + 1, context);
         else return alternatives;
     }
 
@@ -407,7 +829,8 @@ public class FDRelation {
         }
         FDRelation keySet = (FDRelation) o;
         return Objects.equals(this.attributes, keySet.attributes) &&
-                Objects.equals(this.data, keySet.data);
+                Objects.equals(this.data, keySet.data) &&
+                Objects.equals(this.multivalued, keySet.multivalued);
     }
 
     /**
@@ -415,7 +838,7 @@ public class FDRelation {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(this.attributes, this.data);
+        return Objects.hash(this.attributes, this.data, this.multivalued);
     }
 }
 
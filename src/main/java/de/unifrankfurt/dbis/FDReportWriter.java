@@ -0,0 +1,127 @@
+package de.unifrankfurt.dbis;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Writes the report of a FDSolver as JSON directly into a Writer,
+ * so no String of the whole report is created.
+ * <p>
+ * Schema (version 2):
+ * <pre>
+ * {
+ *   "version": 2,
+ *   "attributes": ["A", ...],
+ *   "forcedAttributes": ["A", ...] or null,
+ *   "dependencies": [{"attribute": "B", "keys": [["A"], ...]}, ...],
+ *   "closure": [{"attribute": "B", "keys": [["A"], ["B"], ...]}, ...],
+ *   "multivaluedDependencies": [{"key": ["A"], "values": ["C", ...]}, ...],
+ *   "prim": ["A", ...],
+ *   "notPrim": ["B", ...],
+ *   "keyCandidates": [["A", "E"], ...],
+ *   "normalForm": 1,
+ *   "fourthNormalForm": false
+ * }
+ * </pre>
+ * "dependencies" is the relation as given, "closure" its transitive and reflexive closure.
+ * Every entry maps an attribute to the minimal keys it depends on.
+ * "normalForm" only covers the functional dependencies, "fourthNormalForm" the multivalued ones as well.
+ * Attribute lists are sorted, keys of one entry appear in ascending size.
+ */
+public class FDReportWriter {
+
+    public static final int VERSION = 2;
+
+    private final JsonWriter json;
+
+    /**
+     * @param writer target, is flushed but not closed by write
+     */
+    public FDReportWriter(Writer writer) {
+        this.json = new JsonWriter(writer);
+    }
+
+    /**
+     * writes the report of solver
+     *
+     * @param solver FDSolver
+     * @throws IOException if writing fails
+     */
+    public void write(FDSolver solver) throws IOException {
+        FDRelation relationRaw = solver.getRelationRaw();
+        this.json.beginObject();
+        this.json.name("version").value(VERSION);
+        this.json.name("attributes");
+        this.writeAttributes(solver.getRelation().getAttributes());
+        this.json.name("forcedAttributes");
+        if (relationRaw.getForcedAttributes() == null) this.json.nullValue();
+        else this.writeAttributes(relationRaw.getForcedAttributes());
+        this.json.name("dependencies");
+        this.writeRelation(relationRaw);
+        this.json.name("closure");
+        this.writeRelation(solver.getRelation());
+        this.json.name("multivaluedDependencies");
+        this.writeMultivalued(relationRaw.getMultivaluedDependencies());
+        this.json.name("prim");
+        this.writeAttributes(solver.getPrim());
+        this.json.name("notPrim");
+        this.writeAttributes(solver.getNotPrim());
+        this.json.name("keyCandidates");
+        this.writeKeys(solver.iterateKeyCandidates());
+        this.json.name("normalForm").value(solver.getNF());
+        this.json.name("fourthNormalForm").value(solver.is4NF());
+        this.json.endObject();
+        this.json.flush();
+    }
+
+    private void writeRelation(FDRelation relation) throws IOException {
+        Map<String, FDKeySet> data = relation.dataView();
+        List<String> attributes = new ArrayList<>(data.keySet());
+        Collections.sort(attributes);
+        this.json.beginArray();
+        for (String attribute : attributes) {
+            this.json.beginObject();
+            this.json.name("attribute").value(attribute);
+            this.json.name("keys");
+            this.writeKeys(data.get(attribute));
+            this.json.endObject();
+        }
+        this.json.endArray();
+    }
+
+    private void writeMultivalued(Collection<FDSimpleRelation> dependencies) throws IOException {
+        List<FDSimpleRelation> sorted = new ArrayList<>(dependencies);
+        sorted.sort(Comparator.comparing(FDSimpleRelation::toString));
+        this.json.beginArray();
+        for (FDSimpleRelation dependency : sorted) {
+            this.json.beginObject();
+            this.json.name("key");
+            this.writeAttributes(dependency.getKey().toSet());
+            this.json.name("values");
+            this.writeAttributes(dependency.getValues());
+            this.json.endObject();
+        }
+        this.json.endArray();
+    }
+
+    private void writeKeys(Iterable<FDKey> keys) throws IOException {
+        this.json.beginArray();
+        for (FDKey key : keys) {
+            this.writeAttributes(Arrays.asList(key.toArray()));
+        }
+        this.json.endArray();
+    }
+
+    private void writeAttributes(Collection<String> attributes) throws IOException {
+        String[] sorted = attributes.toArray(new String[0]);
+        Arrays.sort(sorted);
+        this.json.beginArray();
+        for (String attribute : sorted) {
+            this.json.value(attribute);
+        }
+        this.json.endArray();
+    }
+}
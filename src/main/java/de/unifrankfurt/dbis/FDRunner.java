@@ -1,10 +1,10 @@
 package de.unifrankfurt.dbis;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import org.apache.commons.cli.*;
 
 import java.io.*;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
 
 /**
@@ -18,12 +18,19 @@ public class FDRunner {
     private static class OutputManager {
         private final PrintWriter writer;
 
+        /**
+         * false for System.out, which is flushed but stays open
+         */
+        private final boolean ownsWriter;
+
         OutputManager(String file) throws FileNotFoundException, UnsupportedEncodingException {
             if (file == null) {
-                this.writer = null;
+                this.writer = new PrintWriter(System.out);
+                this.ownsWriter = false;
                 return;
             }
             this.writer = new PrintWriter(file, "UTF-8");
+            this.ownsWriter = true;
         }
 
         /**
@@ -32,18 +39,33 @@ public class FDRunner {
          * @param msg to print
          */
         public void println(String msg) {
-            if (this.writer == null) System.out.println(msg);
-            else {
-                this.writer.println(msg);
-                this.writer.flush();
-            }
+            this.writer.println(msg);
+            this.writer.flush();
+        }
+
+        /**
+         * prints msg without line break in correct steam
+         *
+         * @param msg to print
+         */
+        public void print(String msg) {
+            this.writer.print(msg);
+            this.writer.flush();
+        }
+
+        /**
+         * @return Writer of the correct stream, the same on every call. Flushed by close, must not be closed.
+         */
+        public Writer getWriter() {
+            return this.writer;
         }
 
         /**
-         * closes steam if needed
+         * flushes the stream and closes it if it is a file
          */
         private void close() {
-            if (this.writer != null) this.writer.close();
+            if (this.ownsWriter) this.writer.close();
+            else this.writer.flush();
         }
     }
 
@@ -106,6 +128,102 @@ public class FDRunner {
                 .desc("writes report in json format. ignored with -r")
                 .build();
         options.addOption(json);
+
+        Option validate = Option.builder("v")
+                .longOpt("validate")
+                .desc("checks if the relation holds on the comma separated table in FILE (first line names the columns) instead of analysing it")
+                .hasArg()
+                .argName("FILE")
+                .build();
+        options.addOption(validate);
+
+        Option conditional = Option.builder("c")
+                .longOpt("conditional")
+                .desc("with -v also finds conditional dependencies for every violated dependency, whose constant patterns match at least SUPPORT rows")
+                .hasArg()
+                .argName("SUPPORT")
+                .build();
+        options.addOption(conditional);
+
+        Option binaryInput = Option.builder()
+                .longOpt("binaryInput")
+                .desc("reads the relation from the binary file given by -i")
+                .build();
+        options.addOption(binaryInput);
+
+        Option binaryOutput = Option.builder()
+                .longOpt("binaryOutput")
+                .desc("writes the result in binary format to the file given by -o. With -r writes the relation only")
+                .build();
+        options.addOption(binaryOutput);
+
+        Option stats = Option.builder()
+                .longOpt("stats")
+                .desc("prints time, allocated bytes and counters of every solver phase to stderr")
+                .build();
+        options.addOption(stats);
+
+        Option timeout = Option.builder()
+                .longOpt("timeout")
+                .hasArg()
+                .argName("MILLIS")
+                .desc("stops solving after MILLIS milliseconds")
+                .build();
+        options.addOption(timeout);
+
+        Option maxKeys = Option.builder()
+                .longOpt("maxKeys")
+                .hasArg()
+                .argName("COUNT")
+                .desc("stops solving after COUNT keys were found")
+                .build();
+        options.addOption(maxKeys);
+
+        Option maxMemory = Option.builder()
+                .longOpt("maxMemory")
+                .hasArg()
+                .argName("MB")
+                .desc("stops solving if more than MB megabytes of heap are used")
+                .build();
+        options.addOption(maxMemory);
+
+        Option progress = Option.builder()
+                .longOpt("progress")
+                .desc("prints the progress of solving to stderr, at most one line per second besides phase changes")
+                .build();
+        options.addOption(progress);
+
+        Option compare = Option.builder()
+                .longOpt("compare")
+                .hasArg()
+                .argName("FILE")
+                .desc("checks if the relation is equivalent to the relation in FILE instead of analysing it. "
+                        + "Prints every dependency of one relation that does not follow from the other")
+                .build();
+        options.addOption(compare);
+
+        Option decompose = Option.builder()
+                .longOpt("decompose")
+                .hasArg()
+                .argName("FILE")
+                .desc("checks lossless join and dependency preservation of the decomposition in FILE "
+                        + "(one fragment per line, attributes separated by the delimiter) instead of analysing")
+                .build();
+        options.addOption(decompose);
+
+        Option decompose4NF = Option.builder()
+                .longOpt("decompose4NF")
+                .desc("prints a lossless decomposition into fourth normal form instead of analysing "
+                        + "(one fragment per line, attributes separated by the delimiter)")
+                .build();
+        options.addOption(decompose4NF);
+
+        Option armstrong = Option.builder()
+                .longOpt("armstrong")
+                .desc("writes an Armstrong relation as comma separated table instead of analysing: "
+                        + "exactly the dependencies implied by the relation hold on it")
+                .build();
+        options.addOption(armstrong);
         return options;
     }
 
@@ -142,9 +260,14 @@ public class FDRunner {
         if (cl.hasOption("o")) {
             outFile = cl.getOptionValue("o");
         }
+        boolean binaryOutput = cl.hasOption("binaryOutput");
+        if (binaryOutput && outFile == null) {
+            System.err.println("--binaryOutput needs -o");
+            return;
+        }
         OutputManager om = null;
         try {
-            om = new OutputManager(outFile);
+            om = new OutputManager(binaryOutput ? null : outFile);
         } catch (FileNotFoundException | UnsupportedEncodingException e) {
             e.printStackTrace();
         }
@@ -153,28 +276,195 @@ public class FDRunner {
             return;
         }
 
+        //read relation
+        FDRelation fdRelation;
+        if (cl.hasOption("binaryInput")) {
+            if (!cl.hasOption("i")) {
+                System.err.println("--binaryInput needs -i");
+                return;
+            }
+            try {
+                fdRelation = FDRelation.readBinary(Paths.get(cl.getOptionValue("i")));
+            } catch (IOException e) {
+                System.err.println("Reading binary input failed: " + e.getMessage());
+                return;
+            }
+            if (cl.hasOption("r") && !binaryOutput) om.print(fdRelation.toString());
+        } else {
+            boolean echo = !binaryOutput && (cl.hasOption("r") | !(cl.hasOption("j") | cl.hasOption("armstrong")));
+            fdRelation = fdr.readText(cl, om, echo);
+            if (fdRelation == null) {
+                om.close();
+                return;
+            }
+        }
+
+        //only read
+        if (cl.hasOption("r")) {
+            if (binaryOutput) fdr.writeBinary(outFile, fdRelation::writeBinary);
+            om.close();
+            return;
+        }
+
+        //validate relation against data
+        if (cl.hasOption("v")) {
+            String tableFile = cl.getOptionValue("v");
+            try (BufferedReader tableReader = new BufferedReader(new FileReader(tableFile))) {
+                FDTable table = FDTable.read(tableReader, ",");
+                om.println(FDValidator.report(
+                        FDValidator.validate(fdRelation, table, FDValidator.DEFAULT_SAMPLES)));
+                if (cl.hasOption("c")) {
+                    int support = Integer.parseInt(cl.getOptionValue("c"));
+                    om.println("Conditional dependencies:");
+                    om.println(FDConditionalFinder.report(FDConditionalFinder.find(fdRelation, table, support)));
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("SUPPORT has to be a number: " + cl.getOptionValue("c"));
+            } catch (IOException e) {
+                System.err.println("Reading table failed: " + e.getMessage());
+            } catch (FDValidator.MissingAttributeException e) {
+                System.err.println("Attributes " + e.getMessage() + " are missing in " + tableFile);
+            }
+            om.close();
+            return;
+        }
+
+        //compare with other relation
+        if (cl.hasOption("compare")) {
+            String otherFile = cl.getOptionValue("compare");
+            String delimiter = cl.hasOption("d") ? cl.getOptionValue("d") : " ";
+            try (Reader otherReader = new BufferedReader(new FileReader(otherFile))) {
+                FDRelation other = new FDParser(delimiter).read(otherReader, null, null);
+                List<FDSimpleRelation> missingInOther = other.dependenciesNotImplied(fdRelation);
+                List<FDSimpleRelation> missingInThis = fdRelation.dependenciesNotImplied(other);
+                if (missingInOther.isEmpty() && missingInThis.isEmpty()) {
+                    om.println("Relations are equivalent");
+                } else {
+                    om.println("Relations are not equivalent");
+                    for (FDSimpleRelation missing : missingInOther) om.println("not implied by " + otherFile + ": " + missing);
+                    for (FDSimpleRelation missing : missingInThis) om.println("only implied by " + otherFile + ": " + missing);
+                }
+            } catch (IOException e) {
+                System.err.println("Reading " + otherFile + " failed: " + e.getMessage());
+            } catch (FDParser.ParseException e) {
+                System.err.println("Failed parsing " + otherFile + ": " + e.getMessage());
+            } catch (FDKey.EmptyException e) {
+                System.err.println("Empty keys are not allowed");
+            } catch (FDRelation.UnexpectedAttributeException e) {
+                System.err.println("Unexpected attributes " + e.getMessage());
+            }
+            om.close();
+            return;
+        }
+
+        //generate example data
+        if (cl.hasOption("armstrong")) {
+            try {
+                FDArmstrongRelation.write(fdRelation, om.getWriter(), ",");
+            } catch (IOException e) {
+                System.err.println("Writing Armstrong relation failed: " + e.getMessage());
+            }
+            om.close();
+            return;
+        }
+
+        //check decomposition
+        if (cl.hasOption("decompose")) {
+            String fragmentFile = cl.getOptionValue("decompose");
+            FDParser parser = new FDParser(cl.hasOption("d") ? cl.getOptionValue("d") : " ");
+            List<List<String>> fragments = new ArrayList<>();
+            try (BufferedReader fragmentReader = new BufferedReader(new FileReader(fragmentFile))) {
+                String line;
+                while ((line = fragmentReader.readLine()) != null) {
+                    if (!line.isEmpty()) fragments.add(parser.parseAttributes(line));
+                }
+                om.println(new FDDecomposition(fdRelation, fragments).report());
+            } catch (IOException e) {
+                System.err.println("Reading " + fragmentFile + " failed: " + e.getMessage());
+            }
+            om.close();
+            return;
+        }
+
+        //decompose into 4NF
+        if (cl.hasOption("decompose4NF")) {
+            String delimiter = cl.hasOption("d") ? cl.getOptionValue("d") : " ";
+            for (List<String> fragment : new FDDependencyBasis(fdRelation).decompose4NF()) {
+                om.println(String.join(delimiter, fragment));
+            }
+            om.close();
+            return;
+        }
+
+        FDSolverBudget budget = FDSolverBudget.UNLIMITED;
+        try {
+            if (cl.hasOption("timeout"))
+                budget = budget.withTimeout(Duration.ofMillis(Long.parseLong(cl.getOptionValue("timeout"))));
+            if (cl.hasOption("maxKeys"))
+                budget = budget.withMaxKeys(Long.parseLong(cl.getOptionValue("maxKeys")));
+            if (cl.hasOption("maxMemory"))
+                budget = budget.withMaxMemory(Long.parseLong(cl.getOptionValue("maxMemory")) * 1024 * 1024);
+        } catch (IllegalArgumentException e) {
+            System.err.println("--timeout, --maxKeys and --maxMemory need a positive number");
+            om.close();
+            return;
+        }
+        FDSolver solver;
+        try {
+            FDProgressListener listener = cl.hasOption("progress")
+                    ? new FDProgressPrinter(System.err, 1000) : FDProgressListener.NONE;
+            solver = FDSolver.createFDSolver(fdRelation, new FDSolverStats(), budget, listener);
+        } catch (FDSolverBudget.ExceededException e) {
+            System.err.println("Solving stopped: " + e.getMessage());
+            if (cl.hasOption("stats")) System.err.println(e.getStats());
+            om.close();
+            return;
+        }
+        if (cl.hasOption("stats")) System.err.println(solver.getStats());
+        if (binaryOutput) {
+            fdr.writeBinary(outFile, solver::writeBinary);
+        } else if (cl.hasOption("j")) {
+            try {
+                Writer writer = om.getWriter();
+                new FDReportWriter(writer).write(solver);
+                writer.write(System.lineSeparator());
+                writer.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        } else om.println(solver.report());
+        om.close();
+    }
+
+    /**
+     * reads and parses the relation in text format from the input chosen by cl.
+     * Dependencies are added to the relation while reading.
+     *
+     * @param cl   parsed arguments
+     * @param om   OutputManager
+     * @param echo if true, every line read is printed to om
+     * @return parsed FDRelation or null if reading or parsing failed or only reading without binary output is requested
+     */
+    private FDRelation readText(CommandLine cl, OutputManager om, boolean echo) {
         //choose input
-        BufferedReader bufReader = null;
+        Reader reader = null;
         if (cl.hasOption("i")) {
             String inFile = cl.getOptionValue("i");
             try {
-                FileReader reader = new FileReader(inFile);
-                bufReader = new BufferedReader(reader);
+                reader = new BufferedReader(new FileReader(inFile));
             } catch (FileNotFoundException e) {
                 e.printStackTrace();
             }
         } else if (cl.hasOption("p")) {
-            bufReader = new BufferedReader(new InputStreamReader(System.in));
+            reader = new BufferedReader(new InputStreamReader(System.in));
         } else System.err.println("should be -i or -p");
 
-        if (bufReader == null) {
+        if (reader == null) {
             System.err.println("input file not found");
-            return;
+            return null;
         }
 
-
         //check if attributes given
-        ArrayList<String> input = new ArrayList<>();
         List<String> attributeList = null;
         if (cl.hasOption("a")) {
             attributeList = cl.getArgList();
@@ -185,70 +475,53 @@ public class FDRunner {
         if (cl.hasOption("d"))
             delimiter = cl.getOptionValue("d");
 
+        FDParser parser = new FDParser(delimiter);
         try {
-            String x;
-            //first line
-            x = bufReader.readLine();
-            if (x != null) {
-                //check if first line defines attributes
-                if (!x.contains("->")) {
-                    if (attributeList == null) {
-                        //attributes from parameter have higher priority
-                        attributeList = Arrays.asList(x.split(delimiter));
-                    }
-                } else input.add(x);
-                if (cl.hasOption("r") | !cl.hasOption("j")) om.println(x);
+            //only read
+            if (cl.hasOption("r") && !cl.hasOption("binaryOutput")) {
+                parser.echo(reader, om::println);
+                return null;
             }
-            //remainder
-            boolean exit = false;
-            while ((!exit) && ((x = bufReader.readLine()) != null)) {
-                if (x.isEmpty()) exit = true;
-                else {
-                    input.add(x);
-                    if (cl.hasOption("r") | !cl.hasOption("j")) om.println(x);
-                }
-            }
-            om.close();
+            return parser.read(reader, attributeList, echo ? om::println : null);
         } catch (IOException e) {
             e.printStackTrace();
-            return;
+        } catch (FDParser.ParseException e) {
+            System.err.println("Failed parsing: " + e.getMessage());
+        } catch (FDKey.EmptyException e) {
+            System.err.println("Empty keys are not allowed");
+        } catch (FDRelation.UnexpectedAttributeException e) {
+            System.err.println("Unexpected attributes " + e.getMessage());
         } finally {
-            if (outFile == null) {
+            if (cl.hasOption("i")) {
                 try {
-                    bufReader.close();
+                    reader.close();
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
             }
         }
-        //only read
-        if (cl.hasOption("r")) return;
-
-        //create FDRelation
-        FDRelation fdRelation = new FDRelation(attributeList);
-        //parse input
-        for (String str : input) {
-            FDSimpleRelation simple = FDSimpleRelation.parse(str, delimiter);
-            if (simple == null) {
-                System.err.println("Failed parsing: " + str);
-                return;
-            }
-            try {
-                fdRelation.add(simple);
-            } catch (FDKey.EmptyException e) {
-                System.err.println("Empty keys are not allowed in " + str);
-                return;
-            } catch (FDRelation.UnexpectedAttributeException e) {
-                System.err.println("Unexpected attributes " + e.getMessage() + " in " + str);
-                return;
-            }
-        }
+        return null;
+    }
 
+    /**
+     * writes binary data to file
+     *
+     * @param file   path of output file
+     * @param writer writes the binary data
+     */
+    private void writeBinary(String file, BinaryWriter writer) {
+        try (OutputStream out = new FileOutputStream(file)) {
+            writer.write(out);
+        } catch (IOException e) {
+            System.err.println("Writing binary output failed: " + e.getMessage());
+        }
+    }
 
-        FDSolver solver = FDSolver.createFDSolver(fdRelation);
-        if (cl.hasOption("j")) {
-            om.println(new Gson().toJson(solver));
-        } else om.println(solver.report());
+    /**
+     * writes binary data to an OutputStream
+     */
+    private interface BinaryWriter {
+        void write(OutputStream out) throws IOException;
     }
 
     /**
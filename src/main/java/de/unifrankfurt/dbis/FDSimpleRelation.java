@@ -1,12 +1,12 @@
 package de.unifrankfurt.dbis;
 
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Objects;
 
 /**
  * A representation for a one line functional relation
+ * or, written with "->>", a multivalued dependency.
  * Has the function to parse a String.
  *
  * @author Patrick Bonack
@@ -19,21 +19,35 @@ public class FDSimpleRelation {
     /**
      * the "left side" of ->
      */
-    protected FDKey key;
+    protected final FDKey key;
 
     /**
      * values the "right side" of ->
      */
-    protected HashSet<String> values;
+    protected final HashSet<String> values;
+
+    /**
+     * true for key ->> values
+     */
+    protected final boolean multivalued;
 
     public FDSimpleRelation() {
         this.key = new FDKey();
         this.values = new HashSet<>();
+        this.multivalued = false;
     }
 
     public FDSimpleRelation(Collection<String> key, Collection<String> values) {
+        this(key, values, false);
+    }
+
+    /**
+     * @param multivalued true for the multivalued dependency key ->> values
+     */
+    public FDSimpleRelation(Collection<String> key, Collection<String> values, boolean multivalued) {
         this.key = new FDKey(key);
         this.values = new HashSet<>(values);
+        this.multivalued = multivalued;
     }
 
 
@@ -45,25 +59,11 @@ public class FDSimpleRelation {
      * @return current updated object if rel has right syntax else null
      */
     public static FDSimpleRelation parse(String rel, String delimiter) {
-        if (rel.isEmpty()) return new FDSimpleRelation();
-        if (!rel.contains("->")) return null;
-        List<String> left;
-        List<String> right;
-        if (delimiter.equals("")) {
-            String[] a = rel.split("->");
-            if (a.length != 2) return null;
-            if (a[0].length() == 0) return null;
-            left = Arrays.asList(a[0].split(""));
-            right = Arrays.asList(a[1].split(""));
-        } else {
-            List<String> list = Arrays.asList(rel.split(delimiter));
-            int i = list.indexOf("->");
-            if (i != list.lastIndexOf("->")) return null;
-            left = list.subList(0, i);
-            right = list.subList(i + 1, list.size());
+        try {
+            return FDParser.parseLine(rel, delimiter);
+        } catch (FDParser.ParseException e) {
+            return null;
         }
-        if (left.size() == 0 || right.size() == 0) return null;
-        return new FDSimpleRelation(left, right);
     }
 
     /**
@@ -88,10 +88,17 @@ public class FDSimpleRelation {
     /**
      * the "right side" of ->
      *
-     * @return HashSet<String> of attributes
+     * @return HashSet<String> of attributes, a copy as values are part of equals and hashCode
      */
     public HashSet<String> getValues() {
-        return this.values;
+        return new HashSet<>(this.values);
+    }
+
+    /**
+     * @return true if this is the multivalued dependency key ->> values
+     */
+    public boolean isMultivalued() {
+        return this.multivalued;
     }
 
     /**
@@ -108,8 +115,23 @@ public class FDSimpleRelation {
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (String attribute : this.key) sb.append(attribute).append(" ");
-        sb.append("->");
+        sb.append(this.multivalued ? "->>" : "->");
         for (String attribute : this.values) sb.append(" ").append(attribute);
         return sb.toString();
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof FDSimpleRelation)) return false;
+        FDSimpleRelation other = (FDSimpleRelation) o;
+        return this.multivalued == other.multivalued &&
+                Objects.equals(this.key, other.key) &&
+                Objects.equals(this.values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.key, this.values, this.multivalued);
+    }
 }
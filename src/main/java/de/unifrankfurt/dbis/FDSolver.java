@@ -1,10 +1,13 @@
 package de.unifrankfurt.dbis;
 
 
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Objects;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
 
 /**
  * FDSolver determines many normal Form related information for given relationContainer.
@@ -15,6 +18,11 @@ import java.util.Objects;
  */
 public class FDSolver {
 
+    /**
+     * min count of FDKey pairs for product to merge the rows in parallel
+     */
+    static final long PARALLEL_PRODUCT_PAIRS = 1 << 14;
+
     /**
      * base relation
      */
@@ -38,26 +46,135 @@ public class FDSolver {
     private final int NF;
 
     /**
-     * any candidate key
+     * candidate keys of every independent component of the relation, on representatives of equivalenceClasses
+     */
+    private final List<FDKeySet> componentKeyCandidates;
+
+    /**
+     * attributes determining each other
      */
-    private final FDKeySet keyCandidates;
+    private final FDEquivalenceClasses equivalenceClasses;
+
+    /**
+     * time and counters of every phase of solving
+     */
+    private final FDSolverStats stats;
+
+    /**
+     * functional and multivalued dependencies of relationRaw, created on first use
+     */
+    private FDDependencyBasis dependencyBasis;
 
     protected FDSolver(FDRelation relation, FDRelation relationRaw, HashSet<String> prim, HashSet<String> notPrim, int NF, FDKeySet keyCandidates) {
+        this(relation, relationRaw, prim, notPrim, NF, keyCandidates, new FDSolverStats());
+    }
+
+    protected FDSolver(FDRelation relation, FDRelation relationRaw, HashSet<String> prim, HashSet<String> notPrim, int NF, FDKeySet keyCandidates, FDSolverStats stats) {
+        this.relation = relation;
+        this.relationRaw = relationRaw;
+        this.prim = prim;
+        this.notPrim = notPrim;
+        this.NF = NF;
+        this.componentKeyCandidates = List.of(keyCandidates);
+        this.equivalenceClasses = FDEquivalenceClasses.NONE;
+        this.stats = stats;
+    }
+
+    private FDSolver(FDRelation relation, FDRelation relationRaw, HashSet<String> prim, HashSet<String> notPrim, int NF,
+                     List<FDKeySet> componentKeyCandidates, FDEquivalenceClasses equivalenceClasses, FDSolverStats stats) {
         this.relation = relation;
         this.relationRaw = relationRaw;
         this.prim = prim;
         this.notPrim = notPrim;
         this.NF = NF;
-        this.keyCandidates = keyCandidates;
+        this.componentKeyCandidates = Collections.unmodifiableList(componentKeyCandidates);
+        this.equivalenceClasses = equivalenceClasses;
+        this.stats = stats;
     }
 
     public static FDSolver createFDSolver(FDRelation relation) {
-        FDRelation transitiveClosureReflexive = relation.transitiveClosureReflexive();
-        FDKeySet keyCandidates = keyCandidates(transitiveClosureReflexive);
-        HashSet<String> prim = prim(keyCandidates);
+        return createFDSolver(relation, new FDSolverStats());
+    }
+
+    /**
+     * @param relation to solve
+     * @param stats    records time and counters of every phase
+     * @return FDSolver
+     */
+    public static FDSolver createFDSolver(FDRelation relation, FDSolverStats stats) {
+        return createFDSolver(relation, new FDSolverContext(stats, FDSolverBudget.UNLIMITED, FDProgressListener.NONE));
+    }
+
+    /**
+     * @param relation to solve
+     * @param budget   limits of solving
+     * @return FDSolver
+     * @throws FDSolverBudget.ExceededException if a limit of budget is exhausted before solving is finished
+     */
+    public static FDSolver createFDSolver(FDRelation relation, FDSolverBudget budget) throws FDSolverBudget.ExceededException {
+        return createFDSolver(relation, new FDSolverStats(), budget);
+    }
+
+    /**
+     * @param relation to solve
+     * @param stats    records time and counters of every phase
+     * @param budget   limits of solving
+     * @return FDSolver
+     * @throws FDSolverBudget.ExceededException if a limit of budget is exhausted before solving is finished
+     */
+    public static FDSolver createFDSolver(FDRelation relation, FDSolverStats stats, FDSolverBudget budget)
+            throws FDSolverBudget.ExceededException {
+        return createFDSolver(relation, stats, budget, FDProgressListener.NONE);
+    }
+
+    /**
+     * @param relation to solve
+     * @param stats    records time and counters of every phase
+     * @param budget   limits of solving
+     * @param listener gets notified about progress
+     * @return FDSolver
+     * @throws FDSolverBudget.ExceededException if a limit of budget is exhausted before solving is finished
+     */
+    public static FDSolver createFDSolver(FDRelation relation, FDSolverStats stats, FDSolverBudget budget,
+                                          FDProgressListener listener) throws FDSolverBudget.ExceededException {
+        FDSolverContext context = new FDSolverContext(stats, budget, listener);
+        try {
+            return createFDSolver(relation, context);
+        } catch (FDSolverContext.Exceeded e) {
+            context.phaseFinished(context.getPhase());
+            throw new FDSolverBudget.ExceededException(e.getLimit(), context.getPhase(), stats);
+        }
+    }
+
+    private static FDSolver createFDSolver(FDRelation relation, FDSolverContext context) {
+        relation = relation.snapshot();
+        context.phaseStarted(FDSolverStats.Phase.REFLEXIVE);
+        FDRelation reflexive = relation.reflexive();
+        context.phaseFinished(FDSolverStats.Phase.REFLEXIVE);
+
+        context.phaseStarted(FDSolverStats.Phase.TRANSITIVE_CLOSURE);
+        FDRelation transitiveClosureReflexive = reflexive.transitiveClosure(context);
+        context.phaseFinished(FDSolverStats.Phase.TRANSITIVE_CLOSURE);
+
+        context.phaseStarted(FDSolverStats.Phase.KEY_CANDIDATES);
+        FDEquivalenceClasses equivalenceClasses = new FDEquivalenceClasses(transitiveClosureReflexive);
+        FDRelation reduced = equivalenceClasses.reduce(transitiveClosureReflexive);
+        List<FDKeySet> componentKeyCandidates = keyCandidates(reduced.components(), context);
+        context.phaseFinished(FDSolverStats.Phase.KEY_CANDIDATES);
+
+        context.phaseStarted(FDSolverStats.Phase.PRIM);
+        HashSet<String> prim = new HashSet<>();
+        for (FDKeySet keyCandidates : componentKeyCandidates) {
+            prim.addAll(equivalenceClasses.expand(prim(keyCandidates)));
+        }
         HashSet<String> notPrim = notPrim(prim, transitiveClosureReflexive.getAttributes());
-        int nf  = NF(notPrim, keyCandidates, transitiveClosureReflexive);
-        return new FDSolver(transitiveClosureReflexive, relation, prim, notPrim, nf, keyCandidates);
+        context.phaseFinished(FDSolverStats.Phase.PRIM);
+
+        context.phaseStarted(FDSolverStats.Phase.NORMAL_FORM);
+        int nf  = NF(notPrim, componentKeyCandidates, transitiveClosureReflexive, context);
+        context.phaseFinished(FDSolverStats.Phase.NORMAL_FORM);
+        return new FDSolver(transitiveClosureReflexive, relation, prim, notPrim, nf, componentKeyCandidates,
+                equivalenceClasses, context.getStats());
     }
 
 
@@ -77,10 +194,113 @@ public class FDSolver {
         return NF;
     }
 
+    /**
+     * creates the cross product of the candidate keys of every component on every call,
+     * iterateKeyCandidates and getKeyCandidateCount do not hold every candidate key at once
+     *
+     * @return FDKeySet of every candidate key
+     */
     public FDKeySet getKeyCandidates() {
+        FDKeySet keyCandidates = new FDKeySet();
+        for (FDKey key : iterateKeyCandidates()) {
+            // unions of minimal keys of disjoint attributes are minimal
+            keyCandidates.addMinimal(key);
+        }
         return keyCandidates;
     }
 
+    /**
+     * walks the cross product of the candidate keys of every component, creating one candidate key at a time
+     *
+     * @return Iterable over every candidate key
+     */
+    public Iterable<FDKey> iterateKeyCandidates() {
+        List<FDKeySet> components = getComponentKeyCandidates();
+        return () -> new CrossProductIterator(components);
+    }
+
+    /**
+     * creates the candidate keys of every independent component on every call
+     *
+     * @return candidate keys of every independent component, a candidate key of the relation
+     * is the union of one candidate key of every component
+     */
+    public List<FDKeySet> getComponentKeyCandidates() {
+        List<FDKeySet> expanded = new ArrayList<>();
+        for (FDKeySet keyCandidates : componentKeyCandidates) {
+            expanded.add(equivalenceClasses.expand(keyCandidates));
+        }
+        return expanded;
+    }
+
+    /**
+     * @return count of candidate keys without creating them
+     */
+    public long getKeyCandidateCount() {
+        long count = 1;
+        for (FDKeySet keyCandidates : componentKeyCandidates) {
+            count *= equivalenceClasses.count(keyCandidates);
+        }
+        return count;
+    }
+
+    /**
+     * @return every group of more than one attribute determining each other, each sorted
+     */
+    public Collection<List<String>> getEquivalentAttributes() {
+        return equivalenceClasses.getClasses();
+    }
+
+    /**
+     * @return time and counters of every phase of solving
+     */
+    public FDSolverStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return FDDependencyBasis of the given functional and multivalued dependencies
+     */
+    public synchronized FDDependencyBasis getDependencyBasis() {
+        if (dependencyBasis == null) dependencyBasis = new FDDependencyBasis(relationRaw);
+        return dependencyBasis;
+    }
+
+    /**
+     * checked apart from getNF, which only covers functional dependencies
+     *
+     * @return true if the given relation is in fourth normal form
+     */
+    public boolean is4NF() {
+        return getDependencyBasis().is4NF();
+    }
+
+    /**
+     * @return true if attribute is part of a candidate key
+     */
+    public boolean isPrime(String attribute) {
+        return prim.contains(attribute);
+    }
+
+    /**
+     * searches a single candidate key containing attribute instead of creating every candidate key
+     *
+     * @return true if attribute is part of a candidate key of relation
+     */
+    public static boolean isPrime(FDRelation relation, String attribute) {
+        return new FDPrimeSearch(relation).isPrime(attribute);
+    }
+
+    /**
+     * checks every given dependency X -> A for X being a superkey or A being prime,
+     * primality is searched only for the right sides that need it and no candidate keys are created
+     *
+     * @return true if relation is in third normal form
+     */
+    public static boolean is3NF(FDRelation relation) {
+        return new FDPrimeSearch(relation).is3NF();
+    }
+
     private HashSet<String> getAttributes() {
         return this.relation.getAttributes();
     }
@@ -108,22 +328,53 @@ public class FDSolver {
     /**
      * @return max normal Form (no more than 3)
      */
-    private static int NF(HashSet<String> notPrim, FDKeySet keyCandidates, FDRelation relation) {
+    private static int NF(HashSet<String> notPrim, List<FDKeySet> componentKeyCandidates, FDRelation relation,
+                          FDSolverContext context) {
         int nf = 1;
-        if (is2NF(notPrim, keyCandidates, relation)) nf = 2;
-        if (nf == 2 && is3NF(relation)) nf = 3;
+        BooleanSupplier is2NF;
+        if (componentKeyCandidates.size() == 1) {
+            is2NF = () -> is2NF(notPrim, componentKeyCandidates.get(0), relation, context);
+        } else {
+            // a non-prim attribute depends on the key part of its component,
+            // which is a proper subset of every candidate key if there are other components
+            is2NF = notPrim::isEmpty;
+        }
+        if (check(2, componentKeyCandidates, relation, is2NF)) nf = 2;
+        if (nf == 2 && check(3, componentKeyCandidates, relation, () -> is3NF(relation, context))) nf = 3;
         return nf;
     }
 
+    /**
+     * runs the check of normalForm inside a FDEvents.NormalFormCheck
+     *
+     * @return result of check
+     */
+    private static boolean check(int normalForm, List<FDKeySet> componentKeyCandidates, FDRelation relation,
+                                 BooleanSupplier check) {
+        FDEvents.NormalFormCheck event = new FDEvents.NormalFormCheck();
+        event.begin();
+        boolean holds = check.getAsBoolean();
+        event.end();
+        if (event.shouldCommit()) {
+            event.normalForm = normalForm;
+            event.holds = holds;
+            event.attributes = relation.getAttributes().size();
+            event.keyCandidates = componentKeyCandidates.stream().mapToInt(FDKeySet::size).sum();
+            event.commit();
+        }
+        return holds;
+    }
+
     /**
      * looks if any non-prime attribute is dependent on any proper subset of any candidate key
      *
      * @return true if in second normal Form
      */
-    private static boolean is2NF(HashSet<String> notPrim, FDKeySet keyCandidates, FDRelation relation) {
-        HashMap<String, FDKeySet> data = relation.getData();
+    private static boolean is2NF(HashSet<String> notPrim, FDKeySet keyCandidates, FDRelation relation, FDSolverContext context) {
+        Map<String, FDKeySet> data = relation.dataView();
         for (String att : notPrim) {
             for (FDKey key : keyCandidates) {
+                context.check(0);
                 for (FDKey subKey : key.powerSetWoSelfAndEmptySet()) {
                     FDKeySet keySet = data.get(att);
                     if (keySet.contains(subKey)) {
@@ -141,9 +392,10 @@ public class FDSolver {
      *
      * @return true if in third normal form
      */
-    private static boolean is3NF(FDRelation relation) {
+    private static boolean is3NF(FDRelation relation, FDSolverContext context) {
         HashSet<String> attributes = relation.getAttributes();
         for (String outerAtt : attributes){
+            context.check(0);
             for (String innerAtt : attributes){
                 if(outerAtt.equals(innerAtt)){
                     continue;
@@ -174,7 +426,7 @@ public class FDSolver {
                 ", prim=" + Arrays.asList(prim.toArray()).toString() +
                 ", notPrim=" + Arrays.asList(notPrim.toArray()).toString() +
                 ", NF=" + NF +
-                ", keyCandidates=" + keyCandidates +
+                ", keyCandidates=" + keyCandidatesString() +
                 '}';
     }
 
@@ -185,8 +437,9 @@ public class FDSolver {
                 "attributes: " + Arrays.asList(getAttributes().toArray()).toString() + ls +
                 "prim attributes: " + Arrays.asList(prim.toArray()).toString() + ls +
                 "non-prim attributes: " + Arrays.asList(notPrim.toArray()).toString() + ls +
-                "key-candidates: " + keyCandidates + ls +
-                "Highest normal form: " + NF;
+                "key-candidates: " + keyCandidatesString() + ls +
+                "Highest normal form: " + NF + ls +
+                "Fourth normal form: " + (is4NF() ? "yes" : "no");
     }
 
     /**
@@ -196,25 +449,150 @@ public class FDSolver {
      * @param relation
      */
     public static FDKeySet keyCandidates(FDRelation relation) {
-        FDKeySet product = null;
-        for(FDKeySet keySet : relation.getData().values()){
-            product = product(product, keySet);
+        FDEquivalenceClasses equivalenceClasses = new FDEquivalenceClasses(relation);
+        FDKeySet keyCandidates = keyCandidates(equivalenceClasses.reduce(relation), FDSolverContext.DISABLED);
+        return keyCandidates == null ? null : equivalenceClasses.expand(keyCandidates);
+    }
+
+    /**
+     * finds the candidate keys of every component on its own, in parallel if there are several.
+     *
+     * @param components result of FDRelation.components of the transitive and reflexive closure
+     * @param context    records product sizes and FDKeySet changes, stops if its budget is exhausted
+     * @return candidate keys of every component in order
+     */
+    static List<FDKeySet> keyCandidates(List<FDRelation> components, FDSolverContext context) {
+        if (components.size() == 1) return List.of(keyCandidates(components.get(0), context));
+        return components.parallelStream()
+                .map(component -> keyCandidates(component, context))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return every candidate key in the format of FDKeySet.toString
+     */
+    private String keyCandidatesString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (FDKey key : iterateKeyCandidates()) {
+            joiner.add(key.toString());
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * every union of one FDKey of each of FDKeySets of pairwise disjoint attributes,
+     * the FDKey of the last FDKeySet changes fastest
+     */
+    private static final class CrossProductIterator implements Iterator<FDKey> {
+        private final List<List<FDKey>> keySets;
+        private final int[] positions;
+        private boolean hasNext;
+
+        private CrossProductIterator(List<FDKeySet> keySets) {
+            this.keySets = new ArrayList<>();
+            for (FDKeySet keySet : keySets) {
+                this.keySets.add(new ArrayList<>(keySet));
+            }
+            this.positions = new int[keySets.size()];
+            this.hasNext = !keySets.isEmpty() && keySets.stream().noneMatch(FDKeySet::isEmpty);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
         }
-        return product;
 
+        @Override
+        public FDKey next() {
+            if (!hasNext) throw new NoSuchElementException();
+            Set<String> union = new HashSet<>();
+            for (int i = 0; i < positions.length; i++) {
+                keySets.get(i).get(positions[i]).forEach(union::add);
+            }
+            int i = positions.length - 1;
+            while (i >= 0 && ++positions[i] == keySets.get(i).size()) {
+                positions[i] = 0;
+                i--;
+            }
+            hasNext = i >= 0;
+            return new FDKey(union);
+        }
+    }
+
+    /**
+     * Attributes are classified first by FDAttributeClassification: the mandatory attributes are
+     * part of every key, so only attributes they do not determine are multiplied, with keys
+     * reduced by the mandatory attributes and without keys using RHS_ONLY attributes.
+     * The mandatory attributes are added to every result of the product.
+     *
+     * @param relation transitive and reflexive closure
+     * @param context  records product sizes and FDKeySet changes, stops if its budget is exhausted
+     * @return FDKeySet of every candidate key
+     */
+    static FDKeySet keyCandidates(FDRelation relation, FDSolverContext context) {
+        Map<String, FDKeySet> data = relation.dataView();
+        if (data.isEmpty()) return null;
+        FDAttributeClassification classification = new FDAttributeClassification(relation);
+        HashSet<String> mandatory = classification.getMandatory();
+        HashSet<String> rhsOnly = classification.getAttributes(FDAttributeClassification.Kind.RHS_ONLY);
+
+        List<FDKeySet> reduced = new ArrayList<>();
+        for (FDKeySet keySet : data.values()) {
+            FDKeySet reducedKeySet = new FDKeySet();
+            boolean determined = false;
+            for (FDKey key : keySet) {
+                Set<String> rest = key.toSet();
+                if (!Collections.disjoint(rest, rhsOnly)) continue;
+                rest.removeAll(mandatory);
+                if (rest.isEmpty()) {
+                    determined = true;
+                    break;
+                }
+                reducedKeySet.add(new FDKey(rest));
+            }
+            if (!determined) reduced.add(reducedKeySet);
+        }
+
+        FDKeySet product = null;
+        int done = 0;
+        for (FDKeySet keySet : reduced) {
+            product = product(product, keySet, context);
+            context.keysFound(++done, reduced.size(), product.size());
+        }
+        FDKeySet result = new FDKeySet();
+        if (product == null) {
+            result.add(new FDKey(mandatory));
+            return result;
+        }
+        for (FDKey key : product) {
+            Set<String> full = key.toSet();
+            full.addAll(mandatory);
+            result.add(new FDKey(full));
+        }
+        return result;
     }
 
     public static FDKeySet product(FDKeySet keySet1, FDKeySet keySet2) {
+        return product(keySet1, keySet2, FDSolverContext.DISABLED);
+    }
+
+    /**
+     * @param context records product sizes and FDKeySet changes, stops if its budget is exhausted
+     * @return FDKeySet of every minimal union of a FDKey in keySet1 and a FDKey in keySet2
+     */
+    static FDKeySet product(FDKeySet keySet1, FDKeySet keySet2, FDSolverContext context) {
         if (Objects.isNull(keySet1)) return keySet2;
         if (Objects.isNull(keySet2)) return keySet1;
-        FDKeySet result = new FDKeySet();
-        for (FDKey key1 : keySet1){
-            for (FDKey key2 : keySet2){
-                HashSet<String> set = new HashSet<>();
-                key1.forEach(set::add);
-                key2.forEach(set::add);
-                result.add(new FDKey(set));
-            }
+        FDEvents.Product event = new FDEvents.Product();
+        event.begin();
+        FDKeySet result = FDProduct.product(keySet1, keySet2, context);
+        context.count(FDSolverStats.Counter.PRODUCT_SIZE, result.size());
+        event.end();
+        if (event.shouldCommit()) {
+            event.leftSize = keySet1.size();
+            event.rightSize = keySet2.size();
+            event.resultSize = result.size();
+            event.commit();
         }
         return result;
     }
@@ -223,4 +601,36 @@ public class FDSolver {
     public FDRelation getRelationRaw() {
         return relationRaw;
     }
+
+    /**
+     * writes every result of this in the binary format of FDBinaryFormat
+     *
+     * @param out OutputStream, is flushed but not closed
+     * @throws IOException if writing fails
+     */
+    public void writeBinary(OutputStream out) throws IOException {
+        FDBinaryFormat.write(this, out);
+    }
+
+    /**
+     * reads a FDSolver written by writeBinary without solving again
+     *
+     * @param buffer binary data, its position is moved behind the solver
+     * @return FDSolver
+     * @throws IOException if buffer does not contain a valid solver
+     */
+    public static FDSolver readBinary(ByteBuffer buffer) throws IOException {
+        return FDBinaryFormat.readSolver(buffer);
+    }
+
+    /**
+     * reads a FDSolver from a file written by writeBinary. The file is mapped into memory.
+     *
+     * @param path file
+     * @return FDSolver
+     * @throws IOException if file does not contain a valid solver
+     */
+    public static FDSolver readBinary(Path path) throws IOException {
+        return FDBinaryFormat.readSolver(FDBinaryFormat.map(path));
+    }
 }
@@ -0,0 +1,120 @@
+package de.unifrankfurt.dbis;
+
+import java.time.Duration;
+
+/**
+ * Limits for one FDSolver.createFDSolver call.
+ * The solver checks them cooperatively while searching the closure, building key products and
+ * checking normal forms, and stops with ExceededException as soon as one is exhausted.
+ * A limit of 0 means unlimited.
+ */
+public final class FDSolverBudget {
+
+    public enum Limit {
+        /**
+         * wall time since start of solving
+         */
+        TIME,
+        /**
+         * FDKeys added to FDKeySets while solving
+         */
+        KEYS,
+        /**
+         * used heap of the JVM, including garbage not collected yet
+         */
+        MEMORY
+    }
+
+    public static final FDSolverBudget UNLIMITED = new FDSolverBudget(0, 0, 0);
+
+    private final long timeoutNanos;
+    private final long maxKeys;
+    private final long maxMemoryBytes;
+
+    private FDSolverBudget(long timeoutNanos, long maxKeys, long maxMemoryBytes) {
+        if (timeoutNanos < 0 || maxKeys < 0 || maxMemoryBytes < 0) throw new IllegalArgumentException("negative limit");
+        this.timeoutNanos = timeoutNanos;
+        this.maxKeys = maxKeys;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    /**
+     * @param timeout max wall time of solving, Duration.ZERO for unlimited
+     * @return copy of this with timeout
+     */
+    public FDSolverBudget withTimeout(Duration timeout) {
+        return new FDSolverBudget(timeout.toNanos(), this.maxKeys, this.maxMemoryBytes);
+    }
+
+    /**
+     * @param maxKeys max count of FDKeys added while solving, 0 for unlimited
+     * @return copy of this with maxKeys
+     */
+    public FDSolverBudget withMaxKeys(long maxKeys) {
+        return new FDSolverBudget(this.timeoutNanos, maxKeys, this.maxMemoryBytes);
+    }
+
+    /**
+     * @param maxMemoryBytes max used heap in bytes, 0 for unlimited
+     * @return copy of this with maxMemoryBytes
+     */
+    public FDSolverBudget withMaxMemory(long maxMemoryBytes) {
+        return new FDSolverBudget(this.timeoutNanos, this.maxKeys, maxMemoryBytes);
+    }
+
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public long getMaxKeys() {
+        return maxKeys;
+    }
+
+    public long getMaxMemoryBytes() {
+        return maxMemoryBytes;
+    }
+
+    /**
+     * @return true if no limit is set
+     */
+    public boolean isUnlimited() {
+        return timeoutNanos == 0 && maxKeys == 0 && maxMemoryBytes == 0;
+    }
+
+    /**
+     * exception if solving was stopped because a limit was exhausted
+     */
+    public static class ExceededException extends Exception {
+        private final Limit limit;
+        private final FDSolverStats.Phase phase;
+        private final FDSolverStats stats;
+
+        ExceededException(Limit limit, FDSolverStats.Phase phase, FDSolverStats stats) {
+            super(limit + " budget exceeded in phase " + phase);
+            this.limit = limit;
+            this.phase = phase;
+            this.stats = stats;
+        }
+
+        /**
+         * @return exhausted limit
+         */
+        public Limit getLimit() {
+            return limit;
+        }
+
+        /**
+         * @return phase that was running when solving stopped
+         */
+        public FDSolverStats.Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * @return statistics of every phase up to the stop
+         */
+        public FDSolverStats getStats() {
+            return stats;
+        }
+    }
+}
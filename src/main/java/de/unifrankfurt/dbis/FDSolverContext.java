@@ -0,0 +1,118 @@
+package de.unifrankfurt.dbis;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * State shared by every step of one solving: FDSolverStats, FDSolverBudget and FDProgressListener.
+ * The steps report their work here and call check regularly, which stops
+ * every thread of the solving with Exceeded once a limit is exhausted.
+ */
+final class FDSolverContext {
+
+    /**
+     * records nothing and never stops
+     */
+    static final FDSolverContext DISABLED =
+            new FDSolverContext(FDSolverStats.DISABLED, FDSolverBudget.UNLIMITED, FDProgressListener.NONE);
+
+    private final FDSolverStats stats;
+    private final FDSolverBudget budget;
+    private final FDProgressListener listener;
+    private final long deadline;
+    private final LongAdder keys;
+    private volatile FDSolverStats.Phase phase;
+    private volatile FDSolverBudget.Limit exceeded;
+
+    FDSolverContext(FDSolverStats stats, FDSolverBudget budget, FDProgressListener listener) {
+        this.stats = stats;
+        this.budget = budget;
+        this.listener = listener;
+        this.deadline = System.nanoTime() + budget.getTimeoutNanos();
+        this.keys = new LongAdder();
+    }
+
+    FDSolverStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return phase running now, null before the first phase
+     */
+    FDSolverStats.Phase getPhase() {
+        return phase;
+    }
+
+    void phaseStarted(FDSolverStats.Phase phase) {
+        this.phase = phase;
+        this.stats.phaseStarted(phase);
+        this.listener.phaseStarted(phase);
+        this.check(0);
+    }
+
+    void phaseFinished(FDSolverStats.Phase phase) {
+        this.stats.phaseFinished(phase);
+        this.listener.phaseFinished(phase, this.stats.getWallNanos(phase));
+    }
+
+    /**
+     * see FDProgressListener.closureRound
+     */
+    void closureRound(String attribute, int round, int frontier) {
+        this.listener.closureRound(attribute, round, frontier);
+    }
+
+    /**
+     * see FDProgressListener.keysFound
+     */
+    void keysFound(int attributesDone, int attributesTotal, int keys) {
+        this.listener.keysFound(attributesDone, attributesTotal, keys);
+    }
+
+    void count(FDSolverStats.Counter counter, long delta) {
+        this.stats.count(counter, delta);
+    }
+
+    /**
+     * adds addedKeys to the FDKeys of this solving and checks every limit
+     *
+     * @param addedKeys FDKeys added since the last check
+     * @throws Exceeded if a limit is exhausted now or was by another thread
+     */
+    void check(long addedKeys) {
+        if (this.budget.isUnlimited()) return;
+        if (this.exceeded != null) throw new Exceeded(this.exceeded);
+        FDSolverBudget.Limit limit = null;
+        if (this.budget.getMaxKeys() > 0) {
+            this.keys.add(addedKeys);
+            if (this.keys.sum() > this.budget.getMaxKeys()) limit = FDSolverBudget.Limit.KEYS;
+        }
+        if (this.budget.getTimeoutNanos() > 0 && System.nanoTime() - this.deadline > 0) {
+            limit = FDSolverBudget.Limit.TIME;
+        }
+        if (this.budget.getMaxMemoryBytes() > 0) {
+            Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() > this.budget.getMaxMemoryBytes()) {
+                limit = FDSolverBudget.Limit.MEMORY;
+            }
+        }
+        if (limit == null) return;
+        this.exceeded = limit;
+        throw new Exceeded(limit);
+    }
+
+    /**
+     * thrown through the steps of solving, is replaced by FDSolverBudget.ExceededException at the end
+     */
+    static final class Exceeded extends RuntimeException {
+        private final FDSolverBudget.Limit limit;
+
+        Exceeded(FDSolverBudget.Limit limit) {
+            super(limit.toString(), null, false, false);
+            this.limit = limit;
+        }
+
+        FDSolverBudget.Limit getLimit() {
+            return limit;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package de.unifrankfurt.dbis;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wall time, allocated bytes and operation counters for every phase of FDSolver.createFDSolver.
+ * Counters may be increased from several threads.
+ * Allocated bytes are summed over all live threads, so they are only available
+ * if the JVM supports com.sun.management.ThreadMXBean and miss threads that end during a phase.
+ */
+public class FDSolverStats {
+
+    /**
+     * phases of FDSolver.createFDSolver in order
+     */
+    public enum Phase {
+        REFLEXIVE,
+        TRANSITIVE_CLOSURE,
+        KEY_CANDIDATES,
+        PRIM,
+        NORMAL_FORM
+    }
+
+    public enum Counter {
+        /**
+         * rounds of FDRelation.transFinder
+         */
+        CLOSURE_ROUNDS,
+        /**
+         * FDKeys changing a FDKeySet
+         */
+        KEYSET_ADDS,
+        /**
+         * FDKeys rejected by a FDKeySet as redundant
+         */
+        KEYSET_REJECTIONS,
+        /**
+         * pairs of FDKeys merged by FDSolver.product
+         */
+        PRODUCT_PAIRS,
+        /**
+         * sum of the sizes of every FDSolver.product result
+         */
+        PRODUCT_SIZE
+    }
+
+    /**
+     * does not record anything
+     */
+    static final FDSolverStats DISABLED = new FDSolverStats(false);
+
+    private final boolean enabled;
+    private final EnumMap<Phase, Long> wallNanos;
+    private final EnumMap<Phase, Long> allocatedBytes;
+    private final EnumMap<Phase, long[]> started;
+    private final EnumMap<Counter, LongAdder> counters;
+
+    public FDSolverStats() {
+        this(true);
+    }
+
+    private FDSolverStats(boolean enabled) {
+        this.enabled = enabled;
+        this.wallNanos = new EnumMap<>(Phase.class);
+        this.allocatedBytes = new EnumMap<>(Phase.class);
+        this.started = new EnumMap<>(Phase.class);
+        this.counters = new EnumMap<>(Counter.class);
+        for (Counter counter : Counter.values()) {
+            this.counters.put(counter, new LongAdder());
+        }
+    }
+
+    /**
+     * @param phase started phase
+     */
+    void phaseStarted(Phase phase) {
+        if (!this.enabled) return;
+        this.started.put(phase, new long[]{System.nanoTime(), allocatedBytes()});
+    }
+
+    /**
+     * @param phase finished phase, has to be started before
+     */
+    void phaseFinished(Phase phase) {
+        if (!this.enabled) return;
+        long[] start = this.started.remove(phase);
+        if (start == null) return;
+        this.wallNanos.merge(phase, System.nanoTime() - start[0], Long::sum);
+        long bytes = allocatedBytes();
+        if (bytes >= 0 && start[1] >= 0) this.allocatedBytes.merge(phase, bytes - start[1], Long::sum);
+    }
+
+    /**
+     * @param counter to increase
+     * @param delta   added to counter
+     */
+    void count(Counter counter, long delta) {
+        if (!this.enabled || delta == 0) return;
+        this.counters.get(counter).add(delta);
+    }
+
+    /**
+     * @return wall time of phase in nanoseconds, 0 if it did not run
+     */
+    public long getWallNanos(Phase phase) {
+        return this.wallNanos.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * @return bytes allocated during phase, -1 if not available
+     */
+    public long getAllocatedBytes(Phase phase) {
+        return this.allocatedBytes.getOrDefault(phase, -1L);
+    }
+
+    /**
+     * @return current value of counter
+     */
+    public long getCount(Counter counter) {
+        return this.counters.get(counter).sum();
+    }
+
+    /**
+     * @return sum of allocated bytes of every live thread or -1 if not supported
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) return -1;
+        long sum = 0;
+        for (long bytes : sunBean.getThreadAllocatedBytes(sunBean.getAllThreadIds())) {
+            if (bytes > 0) sum += bytes;
+        }
+        return sum;
+    }
+
+    /**
+     * @return one line per phase and counter
+     */
+    @Override
+    public String toString() {
+        String ls = System.lineSeparator();
+        StringBuilder sb = new StringBuilder("Solver statistics:");
+        for (Phase phase : Phase.values()) {
+            sb.append(ls).append(phase).append(": ")
+                    .append(String.format("%.3f", getWallNanos(phase) / 1e6)).append(" ms");
+            long bytes = getAllocatedBytes(phase);
+            if (bytes >= 0) sb.append(", ").append(bytes).append(" bytes allocated");
+        }
+        for (Counter counter : Counter.values()) {
+            sb.append(ls).append(counter).append(": ").append(getCount(counter));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package de.unifrankfurt.dbis;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * A columnar table of String values.
+ * Every column is dictionary encoded: each distinct value of a column gets an int code,
+ * so equal values in one column have equal codes.
+ */
+public class FDTable {
+
+    /**
+     * column names in order of appearance
+     */
+    private final List<String> attributes;
+
+    /**
+     * maps column name to its index
+     */
+    private final HashMap<String, Integer> index;
+
+    /**
+     * codes[column][row] is the dictionary code of the value at row in column
+     */
+    private int[][] codes;
+
+    /**
+     * dictionaries.get(column) maps code to value
+     */
+    private final List<List<String>> dictionaries;
+
+    /**
+     * dictionaryLookups.get(column) maps value to code
+     */
+    private final List<HashMap<String, Integer>> dictionaryLookups;
+
+    /**
+     * count of rows
+     */
+    private int rows;
+
+    /**
+     * @param attributes column names, should be unique
+     */
+    public FDTable(List<String> attributes) {
+        this.attributes = new ArrayList<>(attributes);
+        this.index = new HashMap<>();
+        this.dictionaries = new ArrayList<>();
+        this.dictionaryLookups = new ArrayList<>();
+        for (int i = 0; i < this.attributes.size(); i++) {
+            this.index.put(this.attributes.get(i), i);
+            this.dictionaries.add(new ArrayList<>());
+            this.dictionaryLookups.add(new HashMap<>());
+        }
+        this.codes = new int[this.attributes.size()][16];
+        this.rows = 0;
+    }
+
+    /**
+     * reads a table from reader. The first line names the columns,
+     * every other non empty line is a row. Quoting is not supported.
+     *
+     * @param reader    BufferedReader
+     * @param delimiter String delimiting values of one line
+     * @return FDTable
+     * @throws IOException if reading fails or a row has the wrong count of values
+     */
+    public static FDTable read(BufferedReader reader, String delimiter) throws IOException {
+        Pattern pattern = Pattern.compile(Pattern.quote(delimiter));
+        String line = reader.readLine();
+        if (line == null) throw new IOException("missing header line");
+        FDTable table = new FDTable(Arrays.asList(pattern.split(line, -1)));
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) continue;
+            String[] values = pattern.split(line, -1);
+            if (values.length != table.attributes.size()) {
+                throw new IOException("line " + lineNumber + ": expected " + table.attributes.size()
+                        + " values but found " + values.length);
+            }
+            table.addRow(values);
+        }
+        return table;
+    }
+
+    /**
+     * appends a row
+     *
+     * @param values one value for every column
+     */
+    public void addRow(String... values) {
+        if (values.length != this.attributes.size()) throw new IllegalArgumentException();
+        if (this.rows == this.capacity()) {
+            for (int c = 0; c < this.codes.length; c++) {
+                this.codes[c] = Arrays.copyOf(this.codes[c], this.rows * 2);
+            }
+        }
+        for (int c = 0; c < values.length; c++) {
+            HashMap<String, Integer> lookup = this.dictionaryLookups.get(c);
+            Integer code = lookup.get(values[c]);
+            if (code == null) {
+                code = lookup.size();
+                lookup.put(values[c], code);
+                this.dictionaries.get(c).add(values[c]);
+            }
+            this.codes[c][this.rows] = code;
+        }
+        this.rows++;
+    }
+
+    private int capacity() {
+        return this.codes.length == 0 ? Integer.MAX_VALUE : this.codes[0].length;
+    }
+
+    /**
+     * @return column names in order
+     */
+    public List<String> getAttributes() {
+        return Collections.unmodifiableList(this.attributes);
+    }
+
+    /**
+     * @return count of rows
+     */
+    public int size() {
+        return this.rows;
+    }
+
+    /**
+     * @param attribute column name
+     * @return index of column or -1 if not contained
+     */
+    public int indexOf(String attribute) {
+        return this.index.getOrDefault(attribute, -1);
+    }
+
+    /**
+     * @param column index of column
+     * @return dictionary codes of column. Only the first size() entries are valid. Must not be modified.
+     */
+    int[] codes(int column) {
+        return this.codes[column];
+    }
+
+    /**
+     * @param column index of column
+     * @return count of distinct values in column
+     */
+    public int distinct(int column) {
+        return this.dictionaries.get(column).size();
+    }
+
+    /**
+     * @param row    index of row
+     * @param column index of column
+     * @return value at row in column
+     */
+    public String value(int row, int column) {
+        if (row >= this.rows) throw new IndexOutOfBoundsException();
+        return this.dictionaries.get(column).get(this.codes[column][row]);
+    }
+
+    /**
+     * @param column index of column
+     * @param code   dictionary code
+     * @return value of code in column
+     */
+    public String decode(int column, int code) {
+        return this.dictionaries.get(column).get(code);
+    }
+}
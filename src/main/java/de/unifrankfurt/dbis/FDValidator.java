@@ -0,0 +1,204 @@
+package de.unifrankfurt.dbis;
+
+import java.util.*;
+
+/**
+ * Checks if the dependencies of a FDRelation hold on the rows of a FDTable.
+ * Dependencies are grouped by their FDKey, so the rows are hashed once per FDKey
+ * and every attribute depending on it is checked in the same pass.
+ */
+public class FDValidator {
+
+    /**
+     * default count of offending row pairs kept per dependency
+     */
+    public static final int DEFAULT_SAMPLES = 3;
+
+    private FDValidator() {
+    }
+
+    /**
+     * Checks every dependency key -> attribute of relation on table.
+     * A row violates key -> attribute if it agrees with the first row of its key group on key
+     * but not on attribute. Each violation is counted once per row.
+     *
+     * @param relation   dependencies to check
+     * @param table      data
+     * @param maxSamples max count of offending row pairs kept per dependency
+     * @return one Violation for each dependency of relation, sorted by dependency
+     * @throws MissingAttributeException if relation uses an attribute that is no column of table
+     */
+    public static List<Violation> validate(FDRelation relation, FDTable table, int maxSamples)
+            throws MissingAttributeException {
+        HashSet<String> missing = relation.getAttributes();
+        missing.removeAll(table.getAttributes());
+        if (!missing.isEmpty()) throw new MissingAttributeException(new ArrayList<>(missing).toString());
+
+        List<Violation> result = new ArrayList<>();
+        for (Map.Entry<FDKey, HashSet<String>> entry : relation.getDictKeyToAttribute().entrySet()) {
+            result.addAll(validate(entry.getKey(), entry.getValue(), table, maxSamples));
+        }
+        result.sort(Comparator.comparing(Violation::toStringSimple));
+        return result;
+    }
+
+    /**
+     * checks key -> attribute for every attribute in values in one pass over table.
+     */
+    private static List<Violation> validate(FDKey key, Collection<String> values, FDTable table, int maxSamples) {
+        int[][] keyColumns = columns(key.toArray(), table);
+        String[] attributes = values.toArray(new String[0]);
+        int[][] valueColumns = columns(attributes, table);
+        Violation[] violations = new Violation[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            violations[i] = new Violation(key, attributes[i]);
+        }
+
+        HashMap<Tuple, Integer> firstRows = new HashMap<>();
+        for (int row = 0; row < table.size(); row++) {
+            Integer first = firstRows.putIfAbsent(new Tuple(keyColumns, row), row);
+            if (first == null) continue;
+            for (int i = 0; i < valueColumns.length; i++) {
+                if (valueColumns[i][first] != valueColumns[i][row]) {
+                    violations[i].count++;
+                    if (violations[i].samples.size() < maxSamples) {
+                        violations[i].samples.add(new int[]{first, row});
+                    }
+                }
+            }
+        }
+        return Arrays.asList(violations);
+    }
+
+    static int[][] columns(String[] attributes, FDTable table) {
+        int[][] columns = new int[attributes.length][];
+        for (int i = 0; i < attributes.length; i++) {
+            columns[i] = table.codes(table.indexOf(attributes[i]));
+        }
+        return columns;
+    }
+
+    /**
+     * creates a readable report of violations.
+     *
+     * @param violations result of validate
+     * @return one line per violated dependency and a summary line
+     */
+    public static String report(List<Violation> violations) {
+        String ls = System.lineSeparator();
+        StringBuilder sb = new StringBuilder();
+        int holding = 0;
+        for (Violation violation : violations) {
+            if (violation.holds()) {
+                holding++;
+                continue;
+            }
+            sb.append(violation).append(ls);
+        }
+        sb.append(holding).append(" of ").append(violations.size()).append(" dependencies hold");
+        return sb.toString();
+    }
+
+    /**
+     * the dictionary codes of some columns at one row
+     */
+    static final class Tuple {
+        private final int[] codes;
+        private final int hash;
+
+        Tuple(int[][] columns, int row) {
+            this.codes = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                this.codes[i] = columns[i][row];
+            }
+            this.hash = Arrays.hashCode(this.codes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Tuple)) return false;
+            return Arrays.equals(this.codes, ((Tuple) o).codes);
+        }
+    }
+
+    /**
+     * result of checking key -> attribute
+     */
+    public static class Violation {
+        private final FDKey key;
+        private final String attribute;
+        private int count;
+
+        /**
+         * pairs of row indexes, that agree on key but not on attribute
+         */
+        private final List<int[]> samples;
+
+        Violation(FDKey key, String attribute) {
+            this.key = key;
+            this.attribute = attribute;
+            this.count = 0;
+            this.samples = new ArrayList<>();
+        }
+
+        public FDKey getKey() {
+            return key;
+        }
+
+        public String getAttribute() {
+            return attribute;
+        }
+
+        /**
+         * @return count of rows violating key -> attribute
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return pairs of row indexes (starting at 0) that agree on key but not on attribute
+         */
+        public List<int[]> getSamples() {
+            return Collections.unmodifiableList(samples);
+        }
+
+        /**
+         * @return true if key -> attribute holds
+         */
+        public boolean holds() {
+            return count == 0;
+        }
+
+        private String toStringSimple() {
+            return key + " -> " + attribute;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(toStringSimple())
+                    .append(": ").append(count).append(" violations");
+            if (!samples.isEmpty()) sb.append(", e.g. rows");
+            for (int[] pair : samples) {
+                sb.append(" (").append(pair[0]).append(", ").append(pair[1]).append(")");
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * exception if relation contains attributes the table does not have
+     */
+    static class MissingAttributeException extends Exception {
+
+        MissingAttributeException(String s) {
+            super(s);
+        }
+    }
+}
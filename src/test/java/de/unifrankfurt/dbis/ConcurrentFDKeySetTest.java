@@ -0,0 +1,94 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentFDKeySetTest {
+
+    private static List<FDKey> randomKeys(Random random, int count) {
+        String[] attributes = {"a", "b", "c", "d", "e", "f", "g", "h", "i", "j"};
+        List<FDKey> keys = new ArrayList<>();
+        while (keys.size() < count) {
+            Set<String> key = new HashSet<>();
+            for (String attribute : attributes) {
+                if (random.nextInt(3) == 0) key.add(attribute);
+            }
+            if (!key.isEmpty()) keys.add(new FDKey(key));
+        }
+        return keys;
+    }
+
+    /**
+     * adding from several threads should keep only the minimal keys, like adding from one thread
+     */
+    @Test
+    public void addParallelTest() {
+        Random random = new Random(47);
+        for (int run = 0; run < 20; run++) {
+            List<FDKey> keys = randomKeys(random, 2000);
+            FDKeySet expected = new FDKeySet();
+            expected.addAll(keys);
+            ConcurrentFDKeySet keySet = new ConcurrentFDKeySet();
+            IntStream.range(0, keys.size()).parallel().forEach(i -> keySet.add(keys.get(i)));
+            assertEquals(expected, keySet.toFDKeySet());
+            assertEquals(keySet, expected);
+            assertEquals(expected.size(), keySet.size());
+        }
+    }
+
+    /**
+     * iterators should not see later changes
+     */
+    @Test
+    public void iteratorTest() {
+        ConcurrentFDKeySet keySet = new ConcurrentFDKeySet();
+        keySet.add(new FDKey("a", "b"));
+        Iterator<FDKey> iterator = keySet.iterator();
+        assertTrue(keySet.add(new FDKey("a")));
+        assertEquals(new FDKey("a", "b"), iterator.next());
+        assertFalse(iterator.hasNext());
+        assertFalse(keySet.contains(new FDKey("a", "b")));
+        assertTrue(keySet.isRedundant(new FDKey("a", "c")));
+    }
+
+    /**
+     * removing from several threads while others add should leave only minimal keys
+     */
+    @Test
+    public void addRemoveParallelTest() {
+        Random random = new Random(147);
+        for (int run = 0; run < 20; run++) {
+            List<FDKey> keys = randomKeys(random, 2000);
+            ConcurrentFDKeySet keySet = new ConcurrentFDKeySet();
+            keySet.addAll(keys.subList(0, 1000));
+            List<FDKey> removed = new ArrayList<>(keySet.toFDKeySet());
+            IntStream.range(0, 2000).parallel().forEach(i -> {
+                if (i < 1000) keySet.add(keys.get(1000 + i));
+                else if (i - 1000 < removed.size()) keySet.remove(removed.get(i - 1000));
+            });
+            FDKeySet current = keySet.toFDKeySet();
+            FDKeySet minimal = new FDKeySet();
+            minimal.addAll(current);
+            assertEquals(minimal, current);
+            for (FDKey key : keys.subList(1000, 2000)) {
+                assertTrue(keySet.isRedundant(key) || removed.stream().anyMatch(key::isSuperKeyOf), key.toString());
+            }
+        }
+    }
+
+    /**
+     * removeAll of itself should empty the set like clear
+     */
+    @Test
+    public void removeAllSelfTest() {
+        ConcurrentFDKeySet keySet = new ConcurrentFDKeySet();
+        keySet.addAll(randomKeys(new Random(7), 50));
+        assertTrue(keySet.removeAll(keySet));
+        assertTrue(keySet.isEmpty());
+        assertFalse(keySet.removeAll(keySet));
+    }
+}
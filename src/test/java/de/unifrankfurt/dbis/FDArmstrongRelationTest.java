@@ -0,0 +1,51 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDArmstrongRelationTest {
+
+    /**
+     * exactly the implied dependencies X -> A should hold on the generated table
+     */
+    @Test
+    public void exactTest() throws Exception {
+        FDRelation relation = new FDRelation(List.of("a", "b", "c", "d")).parse("a->b").parse("bc->a");
+        StringWriter writer = new StringWriter();
+        FDArmstrongRelation.write(relation, writer, ",");
+        FDTable table = FDTable.read(new BufferedReader(new StringReader(writer.toString())), ",");
+        List<String> attributes = table.getAttributes();
+        for (int mask = 1; mask < 1 << attributes.size(); mask++) {
+            Set<String> key = new HashSet<>();
+            for (int i = 0; i < attributes.size(); i++) {
+                if ((mask & 1 << i) != 0) key.add(attributes.get(i));
+            }
+            for (String attribute : attributes) {
+                FDRelation single = new FDRelation().add(new FDSimpleRelation(key, Set.of(attribute)));
+                boolean holds = FDValidator.validate(single, table, 0).get(0).holds();
+                assertEquals(relation.implies(new FDKey(key), Set.of(attribute)), holds, key + " -> " + attribute);
+            }
+        }
+    }
+
+    /**
+     * ten independent composite keys of one attribute give 1024 maximal sets
+     */
+    @Test
+    public void manyMaximalSetsTest() throws Exception {
+        FDRelation relation = new FDRelation();
+        for (int i = 0; i < 10; i++) {
+            relation.add(new FDSimpleRelation(Set.of("x" + i, "y" + i), Set.of("z")));
+        }
+        List<Set<String>> maximalSets = FDArmstrongRelation.maximalSets(relation);
+        assertEquals(maximalSets.size(), new HashSet<>(maximalSets).size());
+        long withoutZ = maximalSets.stream().filter(m -> !m.contains("z")).count();
+        assertEquals(1024, withoutZ);
+    }
+}
@@ -0,0 +1,56 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDAttributeClassificationTest {
+
+    /**
+     * every kind should be found, trivial dependencies are ignored
+     */
+    @Test
+    public void classifyTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation(List.of("a", "b", "c", "d", "e"))
+                .parse("a->b").parse("b->c").parse("de->d");
+        FDAttributeClassification classification = new FDAttributeClassification(relation);
+        assertEquals(FDAttributeClassification.Kind.LHS_ONLY, classification.get("a"));
+        assertEquals(FDAttributeClassification.Kind.BOTH, classification.get("b"));
+        assertEquals(FDAttributeClassification.Kind.RHS_ONLY, classification.get("c"));
+        assertEquals(FDAttributeClassification.Kind.ISOLATED, classification.get("d"));
+        assertEquals(FDAttributeClassification.Kind.ISOLATED, classification.get("e"));
+        assertEquals(Set.of("a", "d", "e"), classification.getMandatory());
+    }
+
+    /**
+     * the reduced key search should find the same keys as the product of every FDKeySet
+     */
+    @Test
+    public void keyCandidatesRandomTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        Random random = new Random(41);
+        String[] attributes = {"a", "b", "c", "d", "e", "f", "g"};
+        for (int run = 0; run < 200; run++) {
+            FDRelation relation = new FDRelation(Arrays.asList(attributes));
+            int dependencies = 1 + random.nextInt(6);
+            for (int i = 0; i < dependencies; i++) {
+                Set<String> key = new HashSet<>();
+                Set<String> values = new HashSet<>();
+                for (String attribute : attributes) {
+                    int r = random.nextInt(6);
+                    if (r == 0) key.add(attribute);
+                    else if (r == 1) values.add(attribute);
+                }
+                if (key.isEmpty() || values.isEmpty()) continue;
+                relation.add(new FDSimpleRelation(key, values));
+            }
+            FDRelation closure = relation.transitiveClosureReflexive();
+            FDKeySet expected = null;
+            for (FDKeySet keySet : closure.getData().values()) {
+                expected = FDSolver.product(expected, keySet);
+            }
+            assertEquals(expected, FDSolver.keyCandidates(closure), relation.toString());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDAttributeClosureTest {
+
+    /**
+     * a dependency should only fire when its whole key is in the closure
+     */
+    @Test
+    public void compositeKeyTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDAttributeClosure closure = new FDAttributeClosure(new FDRelation().parse("ab->c").parse("c->d").parse("d->a"));
+        assertEquals(Set.of("a"), closure.closure(Set.of("a")));
+        assertEquals(Set.of("a", "b", "c", "d"), closure.closure(Set.of("a", "b")));
+        assertEquals(Set.of("a", "b", "c", "d"), closure.closure(Set.of("b", "d")));
+        assertEquals(Set.of("c", "d", "a", "x"), closure.closure(Set.of("c", "x")));
+    }
+
+    /**
+     * implies should hold for cycles and trivially for subsets of the key
+     */
+    @Test
+    public void impliesTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDAttributeClosure closure = new FDAttributeClosure(new FDRelation().parse("a->b").parse("b->c").parse("c->a"));
+        assertTrue(closure.implies(Set.of("c"), Set.of("a", "b")));
+        assertTrue(closure.implies(Set.of("x"), Set.of("x")));
+        assertFalse(closure.implies(Set.of("x"), Set.of("a")));
+    }
+}
@@ -0,0 +1,77 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class FDBinaryFormatTest {
+
+    /**
+     * a relation has to be equal after writing and reading it
+     */
+    @Test
+    public void relationRoundTrip() throws Exception {
+        FDRelation relation = new FDRelation(Arrays.asList("a", "b", "c", "d", "e"))
+                .parse("a->bc")
+                .parse("cd->e")
+                .parse("e->a");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        relation.writeBinary(out);
+        FDRelation read = FDRelation.readBinary(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(relation, read);
+        assertEquals(relation.getForcedAttributes(), read.getForcedAttributes());
+
+        relation.parse("a->>d");
+        out = new ByteArrayOutputStream();
+        relation.writeBinary(out);
+        read = FDRelation.readBinary(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(relation, read);
+        assertEquals(relation.getMultivaluedDependencies(), read.getMultivaluedDependencies());
+
+        FDRelation noForced = new FDRelation().parse("a->b");
+        out = new ByteArrayOutputStream();
+        noForced.writeBinary(out);
+        read = FDRelation.readBinary(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(noForced, read);
+        assertNull(read.getForcedAttributes());
+    }
+
+    /**
+     * a solver has to keep every result after writing and reading it
+     */
+    @Test
+    public void solverRoundTrip() throws Exception {
+        FDSolver solver = new FDRelation().parse("a->b").parse("bc->a").solve();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        solver.writeBinary(out);
+        FDSolver read = FDSolver.readBinary(ByteBuffer.wrap(out.toByteArray()));
+        assertEquals(solver.getRelation(), read.getRelation());
+        assertEquals(solver.getRelationRaw(), read.getRelationRaw());
+        assertEquals(solver.getPrim(), read.getPrim());
+        assertEquals(solver.getNotPrim(), read.getNotPrim());
+        assertEquals(solver.getKeyCandidates(), read.getKeyCandidates());
+        assertEquals(solver.getNF(), read.getNF());
+    }
+
+    /**
+     * wrong kind, wrong magic and truncated data raise IOException
+     */
+    @Test
+    public void corruptData() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FDRelation().parse("a->b").writeBinary(out);
+        byte[] bytes = out.toByteArray();
+        assertThrows(IOException.class, () -> FDSolver.readBinary(ByteBuffer.wrap(bytes)));
+        assertThrows(IOException.class,
+                () -> FDRelation.readBinary(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1))));
+        byte[] noMagic = bytes.clone();
+        noMagic[0] = 'X';
+        assertThrows(IOException.class, () -> FDRelation.readBinary(ByteBuffer.wrap(noMagic)));
+    }
+}
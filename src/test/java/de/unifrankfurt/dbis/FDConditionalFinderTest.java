@@ -0,0 +1,53 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class FDConditionalFinderTest {
+
+    private FDTable table() {
+        FDTable table = new FDTable(Arrays.asList("country", "zip", "city"));
+        table.addRow("DE", "60325", "Frankfurt");
+        table.addRow("DE", "60325", "Frankfurt");
+        table.addRow("DE", "10115", "Berlin");
+        table.addRow("US", "60325", "Chicago");
+        table.addRow("FR", "75001", "Paris");
+        table.addRow("FR", "75001", "Lyon");
+        table.addRow("IT", "60325", "Roma");
+        return table;
+    }
+
+    /**
+     * zip -> city only holds for country DE, US and IT. IT has not enough support.
+     */
+    @Test
+    public void find() throws Exception {
+        FDRelation relation = new FDRelation().parse("zip -> city", " ");
+        List<FDConditionalFinder.ConditionalDependency> dependencies = FDConditionalFinder.find(relation, table(), 1);
+        assertEquals(1, dependencies.size());
+        FDConditionalFinder.ConditionalDependency dependency = dependencies.get(0);
+        assertEquals("country", dependency.getCondition());
+        assertEquals(Map.of("DE", 3, "US", 1, "IT", 1), dependency.getPatterns());
+        assertEquals(new FDKey("zip", "country"), dependency.toSimpleRelation().getKey());
+
+        dependencies = FDConditionalFinder.find(relation, table(), 2);
+        assertEquals(Map.of("DE", 3), dependencies.get(0).getPatterns());
+        assertEquals("[zip] -> city | country: DE (3)",
+                FDConditionalFinder.report(dependencies));
+    }
+
+    /**
+     * dependencies that hold on the whole table are not refined
+     */
+    @Test
+    public void findHolding() throws Exception {
+        FDRelation relation = new FDRelation().parse("city -> zip", " ");
+        assertTrue(FDConditionalFinder.find(relation, table(), 1).isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDDecompositionTest {
+
+    /**
+     * AB -> C, C -> B decomposed into AC, BC is lossless but loses AB -> C
+     */
+    @Test
+    public void losslessNotPreservingTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("ab->c").parse("c->b");
+        FDDecomposition decomposition = new FDDecomposition(relation, List.of(Set.of("a", "c"), Set.of("b", "c")));
+        assertTrue(decomposition.isLossless());
+        assertFalse(decomposition.isDependencyPreserving());
+        List<FDSimpleRelation> lost = decomposition.getLostDependencies();
+        assertEquals(1, lost.size());
+        assertEquals(new FDKey("a", "b"), lost.get(0).getKey());
+    }
+
+    /**
+     * a -> b decomposed into ab, bc is lossy, as b determines nothing
+     */
+    @Test
+    public void lossyTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation(List.of("a", "b", "c")).parse("a->b");
+        FDDecomposition decomposition = new FDDecomposition(relation, List.of(Set.of("a", "b"), Set.of("b", "c")));
+        assertFalse(decomposition.isLossless());
+        assertTrue(decomposition.isDependencyPreserving());
+    }
+
+    /**
+     * the chase has to apply dependencies repeatedly, a dependency across fragments is preserved transitively
+     */
+    @Test
+    public void chaseRoundsTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("a->b").parse("b->c").parse("c->a");
+        FDDecomposition decomposition = new FDDecomposition(relation, List.of(Set.of("a", "b"), Set.of("b", "c")));
+        assertTrue(decomposition.isLossless());
+        assertTrue(decomposition.isDependencyPreserving());
+    }
+
+    /**
+     * attributes in no fragment make the join lossy
+     */
+    @Test
+    public void uncoveredTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("a->bc");
+        FDDecomposition decomposition = new FDDecomposition(relation, List.of(Set.of("a", "b")));
+        assertEquals(List.of("c"), decomposition.getUncoveredAttributes());
+        assertFalse(decomposition.isLossless());
+    }
+
+    /**
+     * a chain of 60 attributes split into 59 fragments is lossless and dependency preserving
+     */
+    @Test
+    public void largeChainTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation();
+        List<Set<String>> fragments = new ArrayList<>();
+        for (int i = 0; i < 59; i++) {
+            relation.add(new FDSimpleRelation(Set.of("a" + i), Set.of("a" + (i + 1))));
+            fragments.add(Set.of("a" + i, "a" + (i + 1)));
+        }
+        FDDecomposition decomposition = new FDDecomposition(relation, fragments);
+        assertTrue(decomposition.isLossless());
+        assertTrue(decomposition.isDependencyPreserving());
+        fragments.remove(30);
+        decomposition = new FDDecomposition(relation, fragments);
+        assertFalse(decomposition.isLossless());
+        assertEquals(1, decomposition.getLostDependencies().size());
+    }
+}
@@ -0,0 +1,141 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDDependencyBasisTest {
+
+    /**
+     * course ->> teacher: teachers and books of a course are independent
+     */
+    @Test
+    public void basisTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation(List.of("course", "teacher", "book"))
+                .add(new FDSimpleRelation(Set.of("course"), Set.of("teacher"), true));
+        FDDependencyBasis basis = new FDDependencyBasis(relation);
+        assertEquals(List.of(List.of("book"), List.of("teacher")), basis.basis(Set.of("course")));
+        assertEquals(List.of(List.of("book", "course")), basis.basis(Set.of("teacher")));
+        assertTrue(basis.implies(new FDSimpleRelation(Set.of("course"), Set.of("book"), true)));
+        assertFalse(basis.implies(new FDSimpleRelation(Set.of("course"), Set.of("book"), false)));
+        assertFalse(basis.implies(new FDSimpleRelation(Set.of("teacher"), Set.of("book"), true)));
+        assertFalse(basis.is4NF());
+        assertEquals(new FDSimpleRelation(Set.of("course"), Set.of("book"), true), basis.getViolation());
+        assertEquals(List.of(List.of("book", "course"), List.of("course", "teacher")), basis.decompose4NF());
+    }
+
+    /**
+     * a ->> b and b -> c imply a -> c by coalescence
+     */
+    @Test
+    public void closureTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("a->>b").parse("b->c");
+        FDDependencyBasis basis = new FDDependencyBasis(relation);
+        assertEquals(Set.of("a", "c"), basis.closure(Set.of("a")));
+        assertTrue(basis.implies(FDSimpleRelation.parse("a->c")));
+        assertTrue(basis.implies(FDSimpleRelation.parse("a->>c")));
+        assertFalse(basis.implies(FDSimpleRelation.parse("a->b")));
+        assertFalse(basis.implies(FDSimpleRelation.parse("a->x")));
+        assertEquals(Set.of("b", "c"), basis.closure(Set.of("b")));
+    }
+
+    /**
+     * without multivalued dependencies the closure is the one of FDRelation, 4NF is BCNF
+     * and the decomposition is lossless
+     */
+    @Test
+    public void functionalRandomTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        Random random = new Random(49);
+        String[] attributes = {"a", "b", "c", "d", "e", "f"};
+        for (int run = 0; run < 200; run++) {
+            FDRelation relation = new FDRelation(Arrays.asList(attributes));
+            for (int i = 0; i < 1 + random.nextInt(5); i++) {
+                Set<String> key = new HashSet<>();
+                Set<String> values = new HashSet<>();
+                for (String attribute : attributes) {
+                    int r = random.nextInt(5);
+                    if (r == 0) key.add(attribute);
+                    else if (r == 1) values.add(attribute);
+                }
+                if (key.isEmpty() || values.isEmpty()) continue;
+                relation.add(new FDSimpleRelation(key, values));
+            }
+            FDDependencyBasis basis = new FDDependencyBasis(relation);
+            boolean bcnf = true;
+            for (Map.Entry<FDKey, HashSet<String>> entry : relation.getDictKeyToAttribute().entrySet()) {
+                Set<String> key = entry.getKey().toSet();
+                assertEquals(relation.attributeClosure(key), basis.closure(key), relation.toString());
+                if (!key.containsAll(entry.getValue()) && !relation.attributeClosure(key).containsAll(Arrays.asList(attributes))) {
+                    bcnf = false;
+                }
+            }
+            assertEquals(bcnf, basis.is4NF(), relation.toString());
+            List<List<String>> fragments = basis.decompose4NF();
+            assertTrue(new FDDecomposition(relation, fragments).isLossless(), relation + " " + fragments);
+            assertEquals(bcnf, fragments.size() == 1, relation.toString());
+        }
+    }
+
+    /**
+     * @return true if no subset X of fragment is left side of a nontrivial projected X ->> Y without being a superkey
+     */
+    private static boolean is4NF(FDDependencyBasis basis, List<String> fragment) {
+        for (int mask = 1; mask < (1 << fragment.size()) - 1; mask++) {
+            Set<String> key = new HashSet<>();
+            for (int i = 0; i < fragment.size(); i++) {
+                if ((mask & 1 << i) != 0) key.add(fragment.get(i));
+            }
+            if (basis.closure(key).containsAll(fragment)) continue;
+            int blocks = 0;
+            for (List<String> block : basis.basis(key)) {
+                if (!Collections.disjoint(block, fragment)) blocks++;
+            }
+            if (blocks >= 2) return false;
+        }
+        return true;
+    }
+
+    /**
+     * a fragment may be violated by a left side that is no given one: ad -> e follows from a -> c and cd -> e
+     */
+    @Test
+    public void decomposeProjectedTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation(List.of("a", "c", "d", "e", "f")).parse("a->c").parse("cd->e");
+        FDDependencyBasis basis = new FDDependencyBasis(relation);
+        List<List<String>> fragments = basis.decompose4NF();
+        for (List<String> fragment : fragments) {
+            assertTrue(is4NF(basis, fragment), fragments.toString());
+        }
+        assertTrue(new FDDecomposition(relation, fragments).isLossless(), fragments.toString());
+    }
+
+    /**
+     * every fragment of random functional and multivalued dependencies should be in 4NF
+     */
+    @Test
+    public void decomposeRandomTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        Random random = new Random(4);
+        String[] attributes = {"a", "b", "c", "d", "e", "f", "g"};
+        for (int run = 0; run < 300; run++) {
+            FDRelation relation = new FDRelation(Arrays.asList(attributes));
+            for (int i = 0; i < 1 + random.nextInt(5); i++) {
+                Set<String> key = new HashSet<>();
+                Set<String> values = new HashSet<>();
+                for (String attribute : attributes) {
+                    int r = random.nextInt(5);
+                    if (r == 0) key.add(attribute);
+                    else if (r == 1) values.add(attribute);
+                }
+                if (key.isEmpty() || values.isEmpty()) continue;
+                relation.add(new FDSimpleRelation(key, values, random.nextBoolean()));
+            }
+            FDDependencyBasis basis = new FDDependencyBasis(relation);
+            List<List<String>> fragments = basis.decompose4NF();
+            for (List<String> fragment : fragments) {
+                assertTrue(is4NF(basis, fragment), relation + " " + fragments);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDDependencyIndexTest {
+
+    /**
+     * a smaller key added later should remove the attribute from the dependency of its superset
+     */
+    @Test
+    public void addedTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("ab->c").parse("ab->d");
+        FDDependencyIndex index = relation.dependencyIndex();
+        assertEquals(Set.of("c", "d"), index.dependenciesOf(new FDKey("a", "b")));
+        relation.parse("a->c");
+        assertEquals(Set.of("c"), index.dependenciesOf(new FDKey("a")));
+        assertEquals(2, index.getDependencies().size());
+        assertEquals(Set.of("d"), index.getDependencies().get(0).values);
+        assertEquals(2, index.getUses("a").size());
+        assertEquals(1, index.getUses("b").size());
+        assertTrue(index.getUses("c").isEmpty());
+        assertArrayEquals(new int[]{2, 1}, index.unsatisfiedCounts());
+    }
+
+    /**
+     * the incrementally updated index should match an index built from the final data
+     */
+    @Test
+    public void randomTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        Random random = new Random(45);
+        String[] attributes = {"a", "b", "c", "d", "e", "f"};
+        for (int run = 0; run < 200; run++) {
+            FDRelation relation = new FDRelation();
+            relation.dependencyIndex();
+            for (int i = 0; i < 8; i++) {
+                Set<String> key = new HashSet<>();
+                Set<String> values = new HashSet<>();
+                for (String attribute : attributes) {
+                    int r = random.nextInt(4);
+                    if (r == 0) key.add(attribute);
+                    else if (r == 1) values.add(attribute);
+                }
+                if (key.isEmpty() || values.isEmpty()) continue;
+                relation.add(new FDSimpleRelation(key, values));
+            }
+            HashMap<FDKey, Set<String>> expectedValues = new HashMap<>();
+            for (FDDependencyIndex.Dependency dependency : new FDDependencyIndex(relation.dataView()).getDependencies()) {
+                expectedValues.put(dependency.key, dependency.values);
+            }
+            HashMap<FDKey, Set<String>> values = new HashMap<>();
+            for (FDDependencyIndex.Dependency dependency : relation.dependencyIndex().getDependencies()) {
+                if (!dependency.values.isEmpty()) values.put(dependency.key, dependency.values);
+            }
+            assertEquals(expectedValues, values, relation.toString());
+            for (int i = 0; i < 10; i++) {
+                Set<String> key = new HashSet<>();
+                for (String attribute : attributes) {
+                    if (random.nextBoolean()) key.add(attribute);
+                }
+                if (key.isEmpty()) continue;
+                FDKey fdKey = new FDKey(key);
+                HashSet<String> scanned = new HashSet<>();
+                for (Map.Entry<String, FDKeySet> entry : relation.dataView().entrySet()) {
+                    for (FDKey lookUpKey : entry.getValue()) {
+                        if (fdKey.isSuperKeyOf(lookUpKey)) scanned.add(entry.getKey());
+                    }
+                }
+                assertEquals(scanned, relation.dependencyIndex().dependenciesOf(fdKey));
+            }
+        }
+    }
+
+    /**
+     * changes made through getData should reach the index
+     */
+    @Test
+    public void getDataTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("a->b").parse("c->d");
+        assertEquals(Set.of("d"), relation.dependencyIndex().dependenciesOf(new FDKey("c")));
+        relation.getData().get("b").add(new FDKey("c"));
+        assertEquals(Set.of("b", "d"), relation.dependencyIndex().dependenciesOf(new FDKey("c")));
+        assertEquals(Set.of("b", "c", "d"), new FDAttributeClosure(relation).closure(Set.of("c")));
+    }
+}
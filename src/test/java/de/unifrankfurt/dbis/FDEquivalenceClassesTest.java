@@ -0,0 +1,62 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDEquivalenceClassesTest {
+
+    /**
+     * a cycle of single attribute dependencies is one class, one-way dependencies are not
+     */
+    @Test
+    public void classesTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation closure = new FDRelation().parse("a->b").parse("b->c").parse("c->a").parse("c->d")
+                .transitiveClosureReflexive();
+        FDEquivalenceClasses classes = new FDEquivalenceClasses(closure);
+        assertEquals(1, classes.getClasses().size());
+        assertEquals(List.of("a", "b", "c"), classes.members("a"));
+        assertEquals("a", classes.representative("c"));
+        assertEquals("d", classes.representative("d"));
+        assertEquals(Set.of("a", "d"), classes.reduce(closure).getAttributes());
+    }
+
+    /**
+     * keys on representatives are expanded by every member
+     */
+    @Test
+    public void expandTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation closure = new FDRelation().parse("a->b").parse("b->a").parse("c->d").parse("d->c").parse("ac->e")
+                .transitiveClosureReflexive();
+        FDEquivalenceClasses classes = new FDEquivalenceClasses(closure);
+        FDKeySet keys = FDSolver.keyCandidates(classes.reduce(closure));
+        FDKeySet expected = new FDKeySet();
+        expected.add(new FDKey("a", "c"));
+        assertEquals(expected, keys);
+        assertEquals(4, classes.count(keys));
+        FDKeySet expanded = classes.expand(keys);
+        assertEquals(4, expanded.size());
+        assertTrue(expanded.contains(new FDKey("b", "d")));
+        assertEquals(expanded, FDSolver.keyCandidates(closure));
+    }
+
+    /**
+     * the solver should report equivalent attributes and all substituted keys
+     */
+    @Test
+    public void solverTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation();
+        for (int i = 0; i < 8; i++) {
+            relation.add(new FDSimpleRelation(Set.of("x" + i), Set.of("y" + i, "z")));
+            relation.add(new FDSimpleRelation(Set.of("y" + i), Set.of("x" + i)));
+        }
+        FDSolver solver = FDSolver.createFDSolver(relation);
+        assertEquals(8, solver.getEquivalentAttributes().size());
+        assertEquals(256, solver.getKeyCandidateCount());
+        assertEquals(256, solver.getKeyCandidates().size());
+        assertEquals(16, solver.getPrim().size());
+    }
+}
@@ -0,0 +1,74 @@
+package de.unifrankfurt.dbis;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDEventsTest {
+
+    /**
+     * solving with a recording should emit every enabled event with its fields
+     */
+    @Test
+    public void recordingTest() throws IOException, FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation container = new FDRelation().parse("a->b").parse("bc->a");
+        Path file = Files.createTempFile("fdevents", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("de.unifrankfurt.dbis.TransitiveClosure").withoutThreshold();
+            recording.enable("de.unifrankfurt.dbis.TransFinderRound").withoutThreshold();
+            recording.enable("de.unifrankfurt.dbis.Product").withoutThreshold();
+            recording.enable("de.unifrankfurt.dbis.NormalFormCheck").withoutThreshold();
+            recording.start();
+            FDSolver.createFDSolver(container);
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            Set<String> names = new HashSet<>();
+            for (RecordedEvent event : events) {
+                names.add(event.getEventType().getName());
+                if (event.getEventType().getName().equals("de.unifrankfurt.dbis.TransitiveClosure")) {
+                    assertEquals(3, event.getInt("attributes"));
+                }
+                if (event.getEventType().getName().equals("de.unifrankfurt.dbis.NormalFormCheck")
+                        && event.getInt("normalForm") == 3) {
+                    assertTrue(event.getBoolean("holds"));
+                }
+            }
+            assertEquals(Set.of("de.unifrankfurt.dbis.TransitiveClosure", "de.unifrankfurt.dbis.TransFinderRound",
+                    "de.unifrankfurt.dbis.Product", "de.unifrankfurt.dbis.NormalFormCheck"), names);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * events should be disabled without a recording that enables them
+     */
+    @Test
+    public void disabledByDefaultTest() {
+        assertFalse(new FDEvents.Product().isEnabled());
+        assertFalse(new FDEvents.TransFinderRound().isEnabled());
+    }
+
+    /**
+     * counting keys should neither copy the FDKeySets of a snapshot nor those shared with it
+     */
+    @Test
+    public void keyCountTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("a->b").parse("c->b").parse("a->c");
+        FDRelation snapshot = relation.snapshot();
+        assertEquals(3, FDEvents.keyCount(relation));
+        assertEquals(3, FDEvents.keyCount(snapshot));
+        assertSame(relation.dataView().get("b"), snapshot.dataView().get("b"));
+    }
+}
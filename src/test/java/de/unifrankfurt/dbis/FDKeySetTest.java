@@ -149,6 +149,29 @@ public class FDKeySetTest {
         assertTrue(!iter.hasNext());
     }
 
+    /**
+     * Iterator has to skip sizes without any FDKey
+     */
+    @Test
+    public void iteratorWithGap() {
+        FDKeySet set = new FDKeySet();
+        FDKey a = new FDKey("a");
+        set.add(a);
+        FDKey bcd = new FDKey("b","c","d");
+        set.add(bcd);
+        Iterator<FDKey> iter = set.iterator();
+        assertEquals(a, iter.next());
+        assertTrue(iter.hasNext());
+        assertEquals(bcd, iter.next());
+        assertTrue(!iter.hasNext());
+        try {
+            iter.next();
+            fail();
+        } catch (NoSuchElementException e) {
+
+        }
+    }
+
     /**
      * checks if toArray works correctly
      */
@@ -395,4 +418,19 @@ public class FDKeySetTest {
         assertEquals(0,keySet.data.size());
     }
 
-}
\ No newline at end of file
+    /**
+     * removeAll and retainAll with this as argument
+     */
+    @Test
+    public void removeAllSelf() {
+        FDKeySet keySet = new FDKeySet();
+        keySet.add(new FDKey("a"));
+        keySet.add(new FDKey("c", "d"));
+        assertFalse(keySet.retainAll(keySet));
+        assertEquals(2, keySet.size());
+        assertTrue(keySet.removeAll(keySet));
+        assertTrue(keySet.isEmpty());
+        assertFalse(keySet.removeAll(keySet));
+    }
+
+}
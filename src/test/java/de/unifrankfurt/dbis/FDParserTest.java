@@ -0,0 +1,111 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class FDParserTest {
+
+    /**
+     * with the empty delimiter every character is an attribute
+     */
+    @Test
+    public void parseLineEmptyDelimiter() throws FDParser.ParseException {
+        FDSimpleRelation rel = FDParser.parseLine("ab->cd", "");
+        assertEquals(new FDKey("a", "b"), rel.getKey());
+        assertEquals(new HashSet<>(Arrays.asList("c", "d")), rel.getValues());
+    }
+
+    /**
+     * "->" does not need surrounding delimiters, repeated attributes and delimiters are ignored
+     */
+    @Test
+    public void parseLineDelimiter() throws FDParser.ParseException {
+        FDSimpleRelation rel = FDParser.parseLine("Name Name  Zip->City", " ");
+        assertEquals(new FDKey("Name", "Zip"), rel.getKey());
+        assertEquals(new HashSet<>(Arrays.asList("City")), rel.getValues());
+        rel = FDParser.parseLine("a, b -> c", ", ");
+        assertEquals(new FDKey("a", "b "), rel.getKey());
+    }
+
+    /**
+     * "->>" makes a multivalued dependency
+     */
+    @Test
+    public void parseLineMultivalued() throws FDParser.ParseException {
+        FDSimpleRelation rel = FDParser.parseLine("Course ->> Teacher Room", " ");
+        assertTrue(rel.isMultivalued());
+        assertEquals(new FDKey("Course"), rel.getKey());
+        assertEquals(new HashSet<>(Arrays.asList("Teacher", "Room")), rel.getValues());
+        assertFalse(FDParser.parseLine("a->b", "").isMultivalued());
+        assertThrows(FDParser.ParseException.class, () -> FDParser.parseLine("a->>", ""));
+    }
+
+    /**
+     * a line of attributes is split at the delimiter
+     */
+    @Test
+    public void parseAttributes() {
+        assertEquals(Arrays.asList("A", "B", "C"), new FDParser(" ").parseAttributes("A  B C"));
+        assertEquals(Arrays.asList("a", "b"), new FDParser("").parseAttributes("ab"));
+    }
+
+    /**
+     * errors report their column
+     */
+    @Test
+    public void parseLineErrors() {
+        FDParser.ParseException e = assertThrows(FDParser.ParseException.class, () -> FDParser.parseLine("a -> b -> c", " "));
+        assertEquals(1, e.getLine());
+        assertEquals(8, e.getColumn());
+        e = assertThrows(FDParser.ParseException.class, () -> FDParser.parseLine(" -> b", " "));
+        assertEquals(2, e.getColumn());
+        e = assertThrows(FDParser.ParseException.class, () -> FDParser.parseLine("a b", " "));
+        assertEquals(4, e.getColumn());
+        e = assertThrows(FDParser.ParseException.class, () -> FDParser.parseLine("a ->", " "));
+        assertEquals(5, e.getColumn());
+    }
+
+    /**
+     * reads attribute line and dependencies until the empty line, lines are passed to echo
+     */
+    @Test
+    public void read() throws Exception {
+        String input = "A B C\r\nA -> B\nB -> C\n\nC -> A\n";
+        List<String> echo = new ArrayList<>();
+        FDRelation relation = new FDParser(" ").read(new StringReader(input), null, echo::add);
+        assertEquals(Arrays.asList("A B C", "A -> B", "B -> C"), echo);
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C")), relation.getForcedAttributes());
+        assertEquals(new FDRelation().parse("A -> B", " ").parse("B -> C", " "), relation);
+    }
+
+    /**
+     * syntax errors in read report the line
+     */
+    @Test
+    public void readError() {
+        String input = "A -> B\nB C\n";
+        FDParser.ParseException e = assertThrows(FDParser.ParseException.class,
+                () -> new FDParser(" ").read(new StringReader(input), null, null));
+        assertEquals(2, e.getLine());
+        assertEquals("line 2, column 4: missing ->", e.getMessage());
+    }
+
+    /**
+     * equal attributes of different lines are the same instance
+     */
+    @Test
+    public void readSharesAttributes() throws Exception {
+        FDRelation relation = new FDParser(" ").read(new StringReader("Zip -> City\nCity -> State\n"), null, null);
+        String cityInKey = relation.getDependenciesTo("State").iterator().next().toArray()[0];
+        String cityInValues = relation.getData().keySet().stream().filter("City"::equals).findFirst().get();
+        assertSame(cityInValues, cityInKey);
+    }
+}
@@ -0,0 +1,84 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDPrimeSearchTest {
+
+    private static FDRelation randomRelation(Random random) throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        String attributes = "abcdefghi";
+        FDRelation relation = new FDRelation();
+        int dependencies = 1 + random.nextInt(8);
+        for (int i = 0; i < dependencies; i++) {
+            StringBuilder key = new StringBuilder();
+            StringBuilder values = new StringBuilder();
+            for (char attribute : attributes.toCharArray()) {
+                int choice = random.nextInt(6);
+                if (choice == 0) key.append(attribute);
+                else if (choice == 1) values.append(attribute);
+            }
+            if (key.length() == 0) key.append(attributes.charAt(random.nextInt(attributes.length())));
+            if (values.length() == 0) values.append(attributes.charAt(random.nextInt(attributes.length())));
+            relation.parse(key + "->" + values);
+        }
+        return relation;
+    }
+
+    /**
+     * the search should find the prime attributes of the candidate keys
+     */
+    @Test
+    public void isPrimeTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        Random random = new Random(50);
+        for (int run = 0; run < 500; run++) {
+            FDRelation relation = randomRelation(random);
+            HashSet<String> prim = FDSolver.createFDSolver(relation).getPrim();
+            FDPrimeSearch search = new FDPrimeSearch(relation);
+            for (String attribute : relation.getAttributes()) {
+                assertEquals(prim.contains(attribute), search.isPrime(attribute), relation + attribute);
+            }
+            assertFalse(search.isPrime("z"));
+        }
+    }
+
+    /**
+     * is3NF should agree with the definition checked against every candidate key
+     */
+    @Test
+    public void is3NFTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        Random random = new Random(3);
+        for (int run = 0; run < 500; run++) {
+            FDRelation relation = randomRelation(random);
+            FDSolver solver = FDSolver.createFDSolver(relation);
+            boolean expected = true;
+            for (Map.Entry<FDKey, HashSet<String>> entry : relation.getDictKeyToAttribute().entrySet()) {
+                boolean superKey = false;
+                for (FDKey key : solver.getKeyCandidates()) {
+                    if (entry.getKey().toSet().containsAll(key.toSet())) superKey = true;
+                }
+                for (String value : entry.getValue()) {
+                    if (!superKey && !entry.getKey().toSet().contains(value) && !solver.isPrime(value)) expected = false;
+                }
+            }
+            assertEquals(expected, FDSolver.is3NF(relation), relation.toString());
+        }
+    }
+
+    /**
+     * "a->b","bc->a" has the keys ac and bc, "ab->c","c->d" has only ab
+     */
+    @Test
+    public void exampleTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("a->b").parse("bc->a");
+        assertTrue(FDSolver.isPrime(relation, "a"));
+        assertTrue(FDSolver.isPrime(relation, "b"));
+        assertTrue(FDSolver.is3NF(relation));
+        relation = new FDRelation().parse("ab->c").parse("c->d");
+        assertTrue(FDSolver.isPrime(relation, "b"));
+        assertFalse(FDSolver.isPrime(relation, "c"));
+        assertFalse(FDSolver.is3NF(relation));
+    }
+}
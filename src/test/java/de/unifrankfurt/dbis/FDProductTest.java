@@ -0,0 +1,87 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDProductTest {
+
+    private static FDKeySet naiveProduct(FDKeySet keySet1, FDKeySet keySet2) {
+        FDKeySet result = new FDKeySet();
+        for (FDKey key1 : keySet1) {
+            for (FDKey key2 : keySet2) {
+                Set<String> union = key1.toSet();
+                union.addAll(key2.toSet());
+                result.add(new FDKey(union));
+            }
+        }
+        return result;
+    }
+
+    private static FDKeySet randomKeySet(Random random, int count, int attributes) {
+        FDKeySet keySet = new FDKeySet();
+        while (keySet.size() < count) {
+            Set<String> key = new HashSet<>();
+            int size = 2 + random.nextInt(3);
+            while (key.size() < size) {
+                key.add("x" + random.nextInt(attributes));
+            }
+            keySet.add(new FDKey(key));
+        }
+        return keySet;
+    }
+
+    /**
+     * the chunked parallel product should find the same keys as the nested loop
+     */
+    @Test
+    public void parallelProductTest() {
+        FDKeySet left = new FDKeySet();
+        FDKeySet right = new FDKeySet();
+        for (int i = 0; i < 20; i++) {
+            for (int j = i + 1; j < 20; j++) {
+                left.add(new FDKey("x" + i, "x" + j));
+                right.add(new FDKey("x" + (i + 10), "x" + (j + 10)));
+            }
+        }
+        assertTrue((long) left.size() * right.size() >= FDSolver.PARALLEL_PRODUCT_PAIRS);
+        assertEquals(naiveProduct(left, right), FDProduct.product(left, right, FDSolverContext.DISABLED));
+    }
+
+    /**
+     * rows containing a key of the other FDKeySet yield only themselves, also across chunks
+     */
+    @Test
+    public void containedKeyTest() {
+        Random random = new Random(48);
+        for (int run = 0; run < 3; run++) {
+            FDKeySet left = randomKeySet(random, 30, 12);
+            FDKeySet right = randomKeySet(random, 20, 12);
+            // every key of left containing x0 contains a key of right
+            right.add(new FDKey("x0"));
+            for (int chunks : new int[]{1, 4, 30}) {
+                assertEquals(naiveProduct(left, right), FDProduct.product(left, right, FDSolverContext.DISABLED, chunks));
+                assertEquals(naiveProduct(right, left), FDProduct.product(right, left, FDSolverContext.DISABLED, chunks));
+            }
+        }
+    }
+
+    /**
+     * small products run in a single chunk
+     */
+    @Test
+    public void sequentialProductTest() {
+        Random random = new Random(4);
+        for (int run = 0; run < 50; run++) {
+            FDKeySet left = randomKeySet(random, 1 + random.nextInt(20), 12);
+            FDKeySet right = randomKeySet(random, 1 + random.nextInt(20), 12);
+            assertEquals(naiveProduct(left, right), FDProduct.product(left, right, FDSolverContext.DISABLED));
+        }
+        FDKeySet single = new FDKeySet();
+        single.add(new FDKey("a"));
+        assertEquals(single, FDProduct.product(single, single, FDSolverContext.DISABLED));
+        assertEquals(new FDKeySet(), FDProduct.product(new FDKeySet(), single, FDSolverContext.DISABLED));
+    }
+}
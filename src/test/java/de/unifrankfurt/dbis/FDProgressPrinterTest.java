@@ -0,0 +1,90 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDProgressPrinterTest {
+
+    private FDRelation relation() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        return new FDRelation().parse("ab->c").parse("c->b").parse("d->e");
+    }
+
+    /**
+     * a listener should get every phase in order, closure rounds and the final key count
+     */
+    @Test
+    public void listenerTest() throws Exception {
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        int[] lastKeys = new int[3];
+        FDProgressListener listener = new FDProgressListener() {
+            @Override
+            public void phaseStarted(FDSolverStats.Phase phase) {
+                calls.add("start " + phase);
+            }
+
+            @Override
+            public void phaseFinished(FDSolverStats.Phase phase, long wallNanos) {
+                calls.add("finish " + phase);
+            }
+
+            @Override
+            public void closureRound(String attribute, int round, int frontier) {
+                assertTrue(round >= 1);
+                assertTrue(frontier >= 1);
+            }
+
+            @Override
+            public void keysFound(int attributesDone, int attributesTotal, int keys) {
+                lastKeys[0] = attributesDone;
+                lastKeys[1] = attributesTotal;
+                lastKeys[2] = keys;
+            }
+        };
+        FDSolver solver = FDSolver.createFDSolver(relation(), new FDSolverStats(), FDSolverBudget.UNLIMITED, listener);
+        List<String> expected = new ArrayList<>();
+        for (FDSolverStats.Phase phase : FDSolverStats.Phase.values()) {
+            expected.add("start " + phase);
+            expected.add("finish " + phase);
+        }
+        assertEquals(expected, calls);
+        // a and d are in every key and determine e, so only b and c are multiplied
+        assertEquals(2, lastKeys[0]);
+        assertEquals(2, lastKeys[1]);
+        assertEquals(solver.getKeyCandidates().size(), lastKeys[2]);
+    }
+
+    /**
+     * the printer should always print phases but throttle rounds
+     */
+    @Test
+    public void printerTest() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FDProgressPrinter printer = new FDProgressPrinter(new PrintStream(out), 60000);
+        FDSolver.createFDSolver(relation(), new FDSolverStats(), FDSolverBudget.UNLIMITED, printer);
+        String[] lines = out.toString().split("\\R");
+        assertEquals(2 * FDSolverStats.Phase.values().length, lines.length);
+        assertEquals("[progress] REFLEXIVE started", lines[0]);
+        assertTrue(lines[1].startsWith("[progress] REFLEXIVE finished in "));
+    }
+
+    /**
+     * without interval every round should be printed
+     */
+    @Test
+    public void unthrottledTest() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FDProgressPrinter printer = new FDProgressPrinter(new PrintStream(out), 0);
+        printer.closureRound("a", 2, 7);
+        printer.keysFound(1, 3, 4);
+        String ls = System.lineSeparator();
+        assertEquals("[progress] closure of a: round 2, 7 keys" + ls
+                + "[progress] key candidates: 1/3 attributes, 4 keys" + ls, out.toString());
+    }
+}
@@ -2,8 +2,12 @@ package de.unifrankfurt.dbis;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -420,6 +424,89 @@ public class FDRelationTest {
         assertEquals(fdr2,fdr);
     }
 
+    /**
+     * closure of a long chain a0->a1->..->a39 is searched in parallel,
+     * every attribute has to depend on all of its predecessors.
+     */
+    @Test
+    public void closureParallelChainTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation();
+        for (int i = 0; i < 39; i++) {
+            fdr.parse("a" + i + " -> a" + (i + 1), " ");
+        }
+        FDRelation closure = fdr.transitiveClosure();
+        assertEquals(fdr.getAttributes(), closure.getAttributes());
+        assertNull(closure.getData().get("a0"));
+        for (int i = 1; i < 40; i++) {
+            FDKeySet set = new FDKeySet();
+            for (int j = 0; j < i; j++) {
+                set.add(new FDKey("a" + j));
+            }
+            assertEquals(set, closure.getDependenciesTo("a" + i));
+        }
+    }
+
+    /**
+     * extending random closures, reflexive or not, has to give the closure of the extended relation,
+     * also for new attributes, empty closures and cycles through every attribute
+     */
+    @Test
+    public void extendClosureTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        // every attribute on a cycle, but not reflexive
+        FDRelation cycle = new FDRelation().parse("a->b").parse("b->a");
+        assertEquals(new FDRelation().parse("a->b").parse("b->a").parse("a->c").transitiveClosure(),
+                cycle.transitiveClosure().extendClosure(FDSimpleRelation.parse("a->c")));
+        // empty, but reflexive
+        assertEquals(new FDRelation().parse("a->c").transitiveClosureReflexive(),
+                new FDRelation().transitiveClosureReflexive().extendClosure(FDSimpleRelation.parse("a->c")));
+
+        Random random = new Random(27);
+        String[] attributes = {"a", "b", "c", "d", "e"};
+        for (int run = 0; run < 1500; run++) {
+            List<FDSimpleRelation> dependencies = new ArrayList<>();
+            int count = random.nextInt(5);
+            for (int i = 0; i <= count; i++) {
+                Set<String> key = new HashSet<>();
+                Set<String> values = new HashSet<>();
+                // the last dependency may use the attributes d and e, which are new to the others
+                int known = i < count ? 3 : attributes.length;
+                for (int j = 0; j < known; j++) {
+                    int r = random.nextInt(4);
+                    if (r == 0) key.add(attributes[j]);
+                    else if (r == 1) values.add(attributes[j]);
+                }
+                if (key.isEmpty()) key.add(attributes[random.nextInt(known)]);
+                if (values.isEmpty()) values.add(attributes[random.nextInt(known)]);
+                dependencies.add(new FDSimpleRelation(key, values));
+            }
+            FDSimpleRelation added = dependencies.remove(dependencies.size() - 1);
+            FDRelation fdr = new FDRelation().addAll(dependencies);
+            FDRelation extended = new FDRelation().addAll(dependencies).add(added);
+            String message = dependencies + " + " + added;
+            assertEquals(extended.transitiveClosure(), fdr.transitiveClosure().extendClosure(added), message);
+            assertEquals(extended.transitiveClosureReflexive(), fdr.transitiveClosureReflexive().extendClosure(added), message);
+        }
+    }
+
+    /**
+     * extendClosure must not change the original closure
+     */
+    @Test
+    public void extendClosureKeepsOriginalTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation closure = new FDRelation().parse("a->b")
+                .transitiveClosureReflexive();
+        FDRelation copy = new FDRelation().parse("a->b")
+                .transitiveClosureReflexive();
+        closure.extendClosure(FDSimpleRelation.parse("b->a"));
+        assertEquals(copy, closure);
+        try {
+            closure.extendClosure(new FDKey(), Set.of("a"));
+            fail();
+        } catch (FDKey.EmptyException e) {
+
+        }
+    }
+
     /**
      * tests reflexive variant of the transitive closure
      */
@@ -548,4 +635,185 @@ public class FDRelationTest {
             fail();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * implies should follow transitive dependencies and reject missing ones
+     */
+    @Test
+    public void impliesTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation().parse("a->b").parse("bc->d").parse("d->e");
+        assertTrue(fdr.implies(new FDKey("a", "c"), Set.of("b", "d", "e")));
+        assertTrue(fdr.implies(new FDKey("a"), Set.of("a", "b")));
+        assertFalse(fdr.implies(new FDKey("a"), Set.of("d")));
+        assertFalse(fdr.implies(new FDKey("a"), Set.of("x")));
+        assertEquals(Set.of("a", "b", "c", "d", "e"), fdr.attributeClosure(Set.of("a", "c")));
+    }
+
+    /**
+     * relations with the same closure are equivalent, others not
+     */
+    @Test
+    public void isEquivalentToTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation().parse("a->b").parse("b->c");
+        FDRelation same = new FDRelation().parse("a->bc").parse("b->c");
+        FDRelation weaker = new FDRelation().parse("a->bc");
+        assertTrue(fdr.isEquivalentTo(same));
+        assertTrue(same.isEquivalentTo(fdr));
+        assertFalse(fdr.isEquivalentTo(weaker));
+        assertTrue(fdr.dependenciesNotImplied(weaker).isEmpty());
+        assertEquals(1, weaker.dependenciesNotImplied(fdr).size());
+        assertEquals(new FDKey("b"), weaker.dependenciesNotImplied(fdr).get(0).getKey());
+    }
+
+    /**
+     * attributes connected by dependencies should form one component, unused attributes their own
+     */
+    @Test
+    public void componentsTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation(java.util.List.of("a", "b", "c", "d", "e", "f"))
+                .parse("a->b").parse("cd->e").parse("e->c");
+        java.util.List<FDRelation> components = fdr.components();
+        assertEquals(3, components.size());
+        assertEquals(Set.of("a", "b"), components.get(0).getAttributes());
+        assertEquals(Set.of("c", "d", "e"), components.get(1).getAttributes());
+        assertEquals(Set.of("f"), components.get(2).getAttributes());
+        assertEquals(fdr.getDependenciesTo("e"), components.get(1).getDependenciesTo("e"));
+    }
+
+    /**
+     * Test repeated lookups are answered from the closure cache until the relation changes.
+     */
+    @Test
+    public void closureCacheTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation().parse("a->b").parse("b->c");
+        assertEquals(Set.of("b"), fdr.getDependenciesOf("a"));
+        assertEquals(Set.of("b"), fdr.getDependenciesOf("a", "x"));
+        assertEquals(1, fdr.getClosureCacheHits());
+        assertEquals(1, fdr.getClosureCacheMisses());
+        fdr.getDependenciesOf("a").add("z");
+        assertEquals(Set.of("b"), fdr.getDependenciesOf("a"));
+
+        assertEquals(Set.of("a", "b", "c", "x"), fdr.attributeClosure(Set.of("a", "x")));
+        assertEquals(Set.of("a", "b", "c"), fdr.attributeClosure(Set.of("a")));
+        assertEquals(4, fdr.getClosureCacheHits());
+        assertEquals(2, fdr.getClosureCacheMisses());
+
+        fdr.parse("a->d");
+        assertEquals(Set.of("b", "d"), fdr.getDependenciesOf("a"));
+        assertEquals(Set.of("a", "b", "c", "d"), fdr.attributeClosure(Set.of("a")));
+        assertEquals(4, fdr.getClosureCacheMisses());
+    }
+
+    /**
+     * Test changes made through getData reach getDependenciesOf and attributeClosure despite the cache.
+     */
+    @Test
+    public void closureCacheGetDataTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation().parse("a -> b", " ").parse("c -> d", " ");
+        assertEquals(Set.of("b"), fdr.getDependenciesOf("a"));
+        assertEquals(Set.of("d"), fdr.getDependenciesOf("c"));
+        assertEquals(Set.of("c", "d"), fdr.attributeClosure(Set.of("c")));
+        fdr.getData().get("b").add(new FDKey("c"));
+        assertEquals(Set.of("b", "d"), fdr.getDependenciesOf("c"));
+        assertEquals(Set.of("b", "c", "d"), fdr.attributeClosure(Set.of("c")));
+        assertTrue(fdr.implies(new FDKey("c"), Set.of("b")));
+    }
+
+    /**
+     * Test a snapshot keeps its dependencies while the original changes and rejects changes itself.
+     */
+    @Test
+    public void snapshotTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation().parse("a->b").parse("c->b");
+        FDRelation snapshot = fdr.snapshot();
+        FDRelation copy = new FDRelation().parse("a->b").parse("c->b");
+        assertTrue(snapshot.isImmutable());
+        assertFalse(fdr.isImmutable());
+        assertSame(snapshot, snapshot.snapshot());
+
+        fdr.parse("d->b").parse("a->e");
+        assertEquals(copy, snapshot);
+        assertEquals(Set.of("b"), snapshot.getDependenciesOf("a"));
+        assertEquals(Set.of("b", "e"), fdr.getDependenciesOf("a"));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.parse("b->a"));
+
+        FDRelation closure = snapshot.transitiveClosureReflexive();
+        FDRelation extended = closure.extendClosure(FDSimpleRelation.parse("b->a"));
+        closure.getData().get("c").add(new FDKey("z"));
+        assertFalse(extended.getDependenciesTo("c").contains(new FDKey("z")));
+        extended.parse("b->c");
+        closure.getData().get("c").remove(new FDKey("z"));
+        assertEquals(copy.transitiveClosureReflexive(), closure);
+    }
+
+    /**
+     * Test changes through getData and getForcedAttributes of a snapshot reach neither the snapshot nor its original.
+     */
+    @Test
+    public void snapshotGetDataTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation(Set.of("a", "b", "c", "z")).parse("a->b").parse("c->b");
+        FDRelation snapshot = fdr.snapshot();
+        FDRelation copy = new FDRelation(Set.of("a", "b", "c", "z")).parse("a->b").parse("c->b");
+
+        snapshot.getData().get("b").add(new FDKey("z"));
+        snapshot.getData().put("a", new FDKeySet());
+        snapshot.getForcedAttributes().add("y");
+        assertEquals(copy, fdr);
+        assertEquals(copy, snapshot);
+        assertEquals(copy.getForcedAttributes(), snapshot.getForcedAttributes());
+        assertEquals(copy.getForcedAttributes(), fdr.getForcedAttributes());
+
+        fdr.getData().get("b").add(new FDKey("z"));
+        assertEquals(copy, snapshot);
+        assertFalse(snapshot.getDependenciesTo("b").contains(new FDKey("z")));
+        assertTrue(fdr.getDependenciesTo("b").contains(new FDKey("z")));
+    }
+
+    /**
+     * Test dataView of a snapshot hands out its FDKeySets without copying and rejects changes.
+     */
+    @Test
+    public void dataViewTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation fdr = new FDRelation().parse("a->b").parse("c->b");
+        FDRelation snapshot = fdr.snapshot();
+        assertSame(snapshot.dataView().get("b"), snapshot.dataView().get("b"));
+        assertEquals(snapshot.getData(), snapshot.dataView());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.dataView().remove("b"));
+    }
+
+    /**
+     * Test solving snapshots in several threads while dependencies are added to the original.
+     */
+    @Test
+    public void snapshotConcurrentTest() throws Exception {
+        FDRelation fdr = new FDRelation().parse("a->b");
+        List<Thread> readers = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    for (int run = 0; run < 50; run++) {
+                        FDRelation snapshot = fdr.snapshot();
+                        FDSolver solver = FDSolver.createFDSolver(snapshot);
+                        assertEquals(FDSolver.createFDSolver(new FDRelation().add(snapshot)).getKeyCandidates(),
+                                solver.getKeyCandidates());
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        String attributes = "abcdefgh";
+        for (int i = 0; i < 200; i++) {
+            fdr.parse(attributes.charAt(i % 8) + "" + attributes.charAt((i * 3 + 1) % 8) + "->" + attributes.charAt((i * 5 + 2) % 8));
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(List.of(), errors);
+    }
+}
@@ -0,0 +1,50 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+public class FDReportWriterTest {
+
+    /**
+     * checks the written schema of "a->b","bc->a"
+     */
+    @Test
+    public void write() throws Exception {
+        FDSolver solver = new FDRelation().parse("a->b").parse("bc->a").solve();
+        StringWriter writer = new StringWriter();
+        new FDReportWriter(writer).write(solver);
+        String expected = "{\"version\":2,"
+                + "\"attributes\":[\"a\",\"b\",\"c\"],"
+                + "\"forcedAttributes\":null,"
+                + "\"dependencies\":[{\"attribute\":\"a\",\"keys\":[[\"b\",\"c\"]]},{\"attribute\":\"b\",\"keys\":[[\"a\"]]}],"
+                + "\"closure\":[{\"attribute\":\"a\",\"keys\":[[\"a\"],[\"b\",\"c\"]]},"
+                + "{\"attribute\":\"b\",\"keys\":[[\"a\"],[\"b\"]]},"
+                + "{\"attribute\":\"c\",\"keys\":[[\"c\"]]}],"
+                + "\"multivaluedDependencies\":[],"
+                + "\"prim\":[\"a\",\"b\",\"c\"],"
+                + "\"notPrim\":[],"
+                + "\"keyCandidates\":[[\"a\",\"c\"],[\"b\",\"c\"]],"
+                + "\"normalForm\":3,"
+                + "\"fourthNormalForm\":false}";
+        assertEquals(expected, writer.toString());
+    }
+
+    /**
+     * multivalued dependencies should be listed with their key and values
+     */
+    @Test
+    public void writeMultivalued() throws Exception {
+        FDSolver solver = new FDRelation().parse("a->>b").parse("a->>b").parse("c->d").solve();
+        StringWriter writer = new StringWriter();
+        new FDReportWriter(writer).write(solver);
+        String report = writer.toString();
+        assertTrue(report.contains("\"multivaluedDependencies\":[{\"key\":[\"a\"],\"values\":[\"b\"]}],"), report);
+        assertTrue(report.endsWith("\"fourthNormalForm\":false}"), report);
+    }
+}
@@ -1,11 +1,16 @@
 package de.unifrankfurt.dbis;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.io.*;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -135,13 +140,129 @@ public class FDRunnerTest {
         String path = this.getClass().getResource("/testRelation.txt").getPath();
         String[] args = {"-j","-i",path};
         FDRunner.main(args);
-        Set<String> prim = new HashSet<>(Arrays.asList("A","E"));
-        HashSet<String> notPrim = new HashSet<>(Arrays.asList("B","C","D"));
-        FDKeySet keyCandidates = new FDKeySet();
-        keyCandidates.add(new FDKey("A","E"));
-        int normalForm = 1;
+        JsonObject report = new JsonParser().parse(outContent.toString()).getAsJsonObject();
+        Gson gson = new Gson();
+        assertEquals(FDReportWriter.VERSION, report.get("version").getAsInt());
+        assertEquals(Arrays.asList("A","B","C","D","E"), gson.fromJson(report.get("forcedAttributes"), List.class));
+        assertEquals(Arrays.asList("A","E"), gson.fromJson(report.get("prim"), List.class));
+        assertEquals(Arrays.asList("B","C","D"), gson.fromJson(report.get("notPrim"), List.class));
+        assertEquals(Arrays.asList(Arrays.asList("A","E")), gson.fromJson(report.get("keyCandidates"), List.class));
+        assertEquals(1, report.get("normalForm").getAsInt());
+        JsonArray dependencies = report.getAsJsonArray("dependencies");
+        assertEquals(3, dependencies.size());
+        JsonObject b = dependencies.get(0).getAsJsonObject();
+        assertEquals("B", b.get("attribute").getAsString());
+        assertEquals(Arrays.asList(Arrays.asList("A"), Arrays.asList("E")), gson.fromJson(b.get("keys"), List.class));
+        assertEquals(5, report.getAsJsonArray("closure").size());
+    }
+
+    /**
+     * tests if the relation is checked against a table
+     */
+    @Test
+    public void mainValidate() {
+        String path = this.getClass().getResource("/testRelation.txt").getPath();
+        String table = this.getClass().getResource("/testTable.csv").getPath();
+        String[] args = {"-i", path, "-v", table};
+        FDRunner.main(args);
+        String ls = System.getProperty("line.separator");
+        String expected = "A B C D E" + ls
+                + "A -> B" + ls
+                + "B -> C D" + ls
+                + "E -> B" + ls
+                + "[B] -> C: 1 violations, e.g. rows (3, 4)" + ls
+                + "[E] -> B: 1 violations, e.g. rows (0, 3)" + ls
+                + "2 of 4 dependencies hold" + ls;
+        assertEquals(expected, outContent.toString());
+    }
+
+    /**
+     * converts the relation to binary, reads it again and writes the solver binary
+     */
+    @Test
+    public void mainBinary() throws IOException {
+        String path = this.getClass().getResource("/testRelation.txt").getPath();
+        Path relationPath = Files.createTempFile("testRelation", ".bin");
+        Path solverPath = Files.createTempFile("testSolver", ".bin");
+        try {
+            FDRunner.main(new String[]{"-r", "-i", path, "--binaryOutput", "-o", relationPath.toString()});
+            assertEquals("", outContent.toString());
+            FDRunner.main(new String[]{"--binaryInput", "-i", relationPath.toString(), "--binaryOutput", "-o", solverPath.toString()});
+            FDSolver solver = FDSolver.readBinary(solverPath);
+            FDKeySet keyCandidates = new FDKeySet();
+            keyCandidates.add(new FDKey("A","E"));
+            assertEquals(keyCandidates, solver.getKeyCandidates());
+            assertEquals(1, solver.getNF());
+            assertEquals(new HashSet<>(Arrays.asList("A","B","C","D","E")), solver.getRelationRaw().getForcedAttributes());
+        } finally {
+            Files.deleteIfExists(relationPath);
+            Files.deleteIfExists(solverPath);
+        }
+    }
+
+    /**
+     * tests comparing two relations
+     */
+    @Test
+    public void mainCompare() {
+        String path = this.getClass().getResource("/testRelation.txt").getPath();
+        String equivalent = this.getClass().getResource("/testRelationEquivalent.txt").getPath();
+        String shorter = this.getClass().getResource("/testRelationWithNewline.txt").getPath();
+        String ls = System.getProperty("line.separator");
+        FDRunner.main(new String[]{"-j", "-i", path, "--compare", equivalent});
+        assertEquals("Relations are equivalent" + ls, outContent.toString());
+        outContent.reset();
+        FDRunner.main(new String[]{"-j", "-i", equivalent, "--compare", shorter});
+        assertEquals("Relations are not equivalent" + ls
+                + "not implied by " + shorter + ": E -> B" + ls, outContent.toString());
+    }
+
+    /**
+     * tests checking a decomposition
+     */
+    @Test
+    public void mainDecompose() {
+        String path = this.getClass().getResource("/testRelation.txt").getPath();
+        String fragments = this.getClass().getResource("/testDecomposition.txt").getPath();
+        FDRunner.main(new String[]{"-j", "-i", path, "--decompose", fragments});
+        String ls = System.getProperty("line.separator");
+        assertEquals("Lossless join: yes" + ls
+                + "Dependency preserving: no" + ls
+                + "lost: E -> B" + ls, outContent.toString());
+    }
+
+    /**
+     * tests decomposing into 4NF, one fragment per line
+     */
+    @Test
+    public void mainDecompose4NF() {
+        String path = this.getClass().getResource("/testRelation.txt").getPath();
+        FDRunner.main(new String[]{"-j", "-i", path, "--decompose4NF"});
+        String ls = System.getProperty("line.separator");
+        assertEquals("A B" + ls + "A E" + ls + "B C D" + ls, outContent.toString());
+    }
 
+    /**
+     * tests generating an Armstrong relation without echo of the input
+     */
+    @Test
+    public void mainArmstrong() {
+        String path = this.getClass().getResource("/testRelation.txt").getPath();
+        FDRunner.main(new String[]{"-i", path, "--armstrong"});
+        String[] lines = outContent.toString().split("\\R");
+        assertEquals("A,B,C,D,E", lines[0]);
+        assertEquals("0,0,0,0,0", lines[1]);
+        assertEquals(7, lines.length);
+    }
 
+    /**
+     * solving should stop without report if the key budget is exhausted
+     */
+    @Test
+    public void mainMaxKeys() {
+        String path = this.getClass().getResource("/testRelation.txt").getPath();
+        FDRunner.main(new String[]{"-j", "-i", path, "--maxKeys", "1"});
+        assertEquals("", outContent.toString());
     }
 
     /**
@@ -6,6 +6,7 @@ import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 public class FDSimpleRelationTest {
@@ -141,4 +142,15 @@ public class FDSimpleRelationTest {
         assertNull(relation);
     }
 
-}
\ No newline at end of file
+    /**
+     * changing the result of getValues keeps a stored multivalued dependency findable
+     */
+    @Test
+    public void getValuesCopy() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation relation = new FDRelation().parse("a->>b");
+        FDSimpleRelation mvd = relation.getMultivaluedDependencies().iterator().next();
+        mvd.getValues().add("c");
+        assertEquals(FDSimpleRelation.parse("a->>b"), mvd);
+        assertTrue(relation.getMultivaluedDependencies().contains(FDSimpleRelation.parse("a->>b")));
+    }
+}
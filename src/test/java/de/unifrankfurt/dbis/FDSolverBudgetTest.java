@@ -0,0 +1,67 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDSolverBudgetTest {
+
+    private FDRelation cycle() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        return new FDRelation().parse("a->b").parse("b->c").parse("c->d").parse("d->a").parse("e->f");
+    }
+
+    /**
+     * an unlimited budget should give the same result as solving without budget
+     */
+    @Test
+    public void unlimitedTest() throws Exception {
+        FDSolver expected = FDSolver.createFDSolver(cycle());
+        FDSolver solver = FDSolver.createFDSolver(cycle(), FDSolverBudget.UNLIMITED);
+        assertEquals(expected.getKeyCandidates(), solver.getKeyCandidates());
+        assertEquals(expected.getNF(), solver.getNF());
+    }
+
+    /**
+     * solving should stop in the transitive closure if too many keys are found
+     */
+    @Test
+    public void maxKeysTest() throws Exception {
+        FDSolverBudget budget = FDSolverBudget.UNLIMITED.withMaxKeys(2);
+        FDSolverBudget.ExceededException e = assertThrows(FDSolverBudget.ExceededException.class,
+                () -> FDSolver.createFDSolver(cycle(), budget));
+        assertEquals(FDSolverBudget.Limit.KEYS, e.getLimit());
+        assertEquals(FDSolverStats.Phase.TRANSITIVE_CLOSURE, e.getPhase());
+        assertTrue(e.getStats().getCount(FDSolverStats.Counter.CLOSURE_ROUNDS) >= 0);
+    }
+
+    /**
+     * an exhausted deadline should stop solving at the next check
+     */
+    @Test
+    public void timeoutTest() throws Exception {
+        FDSolverBudget budget = FDSolverBudget.UNLIMITED.withTimeout(Duration.ofNanos(1));
+        Thread.sleep(1);
+        FDSolverBudget.ExceededException e = assertThrows(FDSolverBudget.ExceededException.class,
+                () -> FDSolver.createFDSolver(cycle(), budget));
+        assertEquals(FDSolverBudget.Limit.TIME, e.getLimit());
+    }
+
+    /**
+     * enough keys should let solving finish
+     */
+    @Test
+    public void enoughKeysTest() throws Exception {
+        FDSolverBudget budget = FDSolverBudget.UNLIMITED.withMaxKeys(1000).withMaxMemory(Runtime.getRuntime().maxMemory());
+        assertEquals(FDSolver.createFDSolver(cycle()).getKeyCandidates(), FDSolver.createFDSolver(cycle(), budget).getKeyCandidates());
+    }
+
+    /**
+     * negative limits are not allowed
+     */
+    @Test
+    public void negativeLimitTest() {
+        assertThrows(IllegalArgumentException.class, () -> FDSolverBudget.UNLIMITED.withMaxKeys(-1));
+    }
+}
@@ -0,0 +1,42 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FDSolverStatsTest {
+
+    /**
+     * every phase and counter of createFDSolver should be recorded
+     */
+    @Test
+    public void createFDSolverTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation container = new FDRelation().parse("ab->c").parse("c->b").parse("d->e");
+        FDSolver solver = FDSolver.createFDSolver(container);
+        FDSolverStats stats = solver.getStats();
+        long total = 0;
+        for (FDSolverStats.Phase phase : FDSolverStats.Phase.values()) {
+            assertTrue(stats.getWallNanos(phase) >= 0);
+            total += stats.getWallNanos(phase);
+        }
+        assertTrue(total > 0);
+        assertTrue(stats.getCount(FDSolverStats.Counter.CLOSURE_ROUNDS) > 0);
+        assertTrue(stats.getCount(FDSolverStats.Counter.KEYSET_ADDS) > 0);
+        assertTrue(stats.getCount(FDSolverStats.Counter.PRODUCT_PAIRS) > 0);
+        assertEquals(2, solver.getKeyCandidates().size());
+        assertTrue(stats.toString().startsWith("Solver statistics:"));
+    }
+
+    /**
+     * DISABLED should not record anything
+     */
+    @Test
+    public void disabledTest() {
+        FDSolverStats.DISABLED.phaseStarted(FDSolverStats.Phase.PRIM);
+        FDSolverStats.DISABLED.count(FDSolverStats.Counter.KEYSET_ADDS, 3);
+        FDSolverStats.DISABLED.phaseFinished(FDSolverStats.Phase.PRIM);
+        assertEquals(0, FDSolverStats.DISABLED.getWallNanos(FDSolverStats.Phase.PRIM));
+        assertEquals(-1, FDSolverStats.DISABLED.getAllocatedBytes(FDSolverStats.Phase.PRIM));
+        assertEquals(0, FDSolverStats.DISABLED.getCount(FDSolverStats.Counter.KEYSET_ADDS));
+    }
+}
@@ -3,7 +3,11 @@ package de.unifrankfurt.dbis;
 import com.google.gson.Gson;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.fail;
 
 
@@ -151,4 +155,41 @@ public class FDSolverTest {
         assertEquals(1,solved.getNF());
 
     }
-}
\ No newline at end of file
+
+    /**
+     * independent components should be solved on their own and combined on request
+     */
+    @Test
+    public void componentsTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation container = new FDRelation().parse("a->b").parse("b->a").parse("c->d").parse("d->c").parse("e->f");
+        FDSolver solver = FDSolver.createFDSolver(container);
+        assertEquals(3, solver.getComponentKeyCandidates().size());
+        assertEquals(4, solver.getKeyCandidateCount());
+        FDKeySet set = new FDKeySet();
+        set.add(new FDKey("a","c","e"));
+        set.add(new FDKey("a","d","e"));
+        set.add(new FDKey("b","c","e"));
+        set.add(new FDKey("b","d","e"));
+        assertEquals(set, solver.getKeyCandidates());
+        assertEquals(1, solver.getNF());
+        FDRelation prime = new FDRelation().parse("a->b").parse("b->a").parse("c->d").parse("d->c");
+        assertEquals(3, FDSolver.createFDSolver(prime).getNF());
+    }
+
+    /**
+     * iterateKeyCandidates should walk the cross product of the components without a stored FDKeySet
+     */
+    @Test
+    public void iterateKeyCandidatesTest() throws FDKey.EmptyException, FDRelation.UnexpectedAttributeException {
+        FDRelation container = new FDRelation().parse("a->b").parse("b->a").parse("cd->e").parse("e->c").parse("f->g");
+        FDSolver solver = FDSolver.createFDSolver(container);
+        List<FDKey> keys = new ArrayList<>();
+        solver.iterateKeyCandidates().forEach(keys::add);
+        assertEquals(solver.getKeyCandidateCount(), keys.size());
+        FDKeySet set = new FDKeySet();
+        set.addAll(keys);
+        assertEquals(keys.size(), set.size());
+        assertEquals(set, solver.getKeyCandidates());
+        assertNotSame(solver.getKeyCandidates(), solver.getKeyCandidates());
+    }
+}
@@ -0,0 +1,61 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class FDTableTest {
+
+    /**
+     * checks if rows are stored and equal values get equal codes
+     */
+    @Test
+    public void addRow() {
+        FDTable table = new FDTable(Arrays.asList("a", "b"));
+        for (int i = 0; i < 40; i++) {
+            table.addRow("v" + (i % 3), "w" + i);
+        }
+        assertEquals(40, table.size());
+        assertEquals(0, table.indexOf("a"));
+        assertEquals(-1, table.indexOf("c"));
+        assertEquals(3, table.distinct(0));
+        assertEquals(40, table.distinct(1));
+        assertEquals("v2", table.value(38, 0));
+        assertEquals("w38", table.value(38, 1));
+        assertEquals(table.codes(0)[1], table.codes(0)[37]);
+        assertNotEquals(table.codes(0)[1], table.codes(0)[2]);
+    }
+
+    /**
+     * checks reading of header and rows, empty lines are skipped
+     */
+    @Test
+    public void read() throws IOException {
+        String csv = "a;b\n1;2\n\n3;\n";
+        FDTable table = FDTable.read(new BufferedReader(new StringReader(csv)), ";");
+        assertEquals(Arrays.asList("a", "b"), table.getAttributes());
+        assertEquals(2, table.size());
+        assertEquals("3", table.value(1, 0));
+        assertEquals("", table.value(1, 1));
+    }
+
+    /**
+     * rows with the wrong count of values are rejected
+     */
+    @Test
+    public void readWrongRow() {
+        String csv = "a,b\n1,2\n1,2,3\n";
+        try {
+            FDTable.read(new BufferedReader(new StringReader(csv)), ",");
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("line 3"));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.unifrankfurt.dbis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class FDValidatorTest {
+
+    private FDTable table() {
+        FDTable table = new FDTable(Arrays.asList("a", "b", "c"));
+        table.addRow("1", "x", "p");
+        table.addRow("1", "x", "q");
+        table.addRow("2", "y", "p");
+        table.addRow("1", "x", "r");
+        return table;
+    }
+
+    /**
+     * a->b holds, a->c is violated twice
+     */
+    @Test
+    public void validate() throws Exception {
+        FDRelation relation = new FDRelation().parse("a->bc");
+        List<FDValidator.Violation> violations = FDValidator.validate(relation, table(), 1);
+        assertEquals(2, violations.size());
+        FDValidator.Violation ab = violations.get(0);
+        FDValidator.Violation ac = violations.get(1);
+        assertEquals("b", ab.getAttribute());
+        assertTrue(ab.holds());
+        assertEquals("c", ac.getAttribute());
+        assertEquals(2, ac.getCount());
+        assertEquals(1, ac.getSamples().size());
+        assertArrayEquals(new int[]{0, 1}, ac.getSamples().get(0));
+    }
+
+    /**
+     * composite keys are grouped on all of their attributes
+     */
+    @Test
+    public void validateCompositeKey() throws Exception {
+        FDRelation relation = new FDRelation().parse("ac->b").parse("b->a");
+        List<FDValidator.Violation> violations = FDValidator.validate(relation, table(), 3);
+        for (FDValidator.Violation violation : violations) {
+            assertTrue(violation.holds(), violation.toString());
+        }
+        assertEquals("2 of 2 dependencies hold", FDValidator.report(violations));
+    }
+
+    /**
+     * attributes that are no column raise MissingAttributeException
+     */
+    @Test
+    public void validateMissingAttribute() throws Exception {
+        FDRelation relation = new FDRelation().parse("a->d");
+        try {
+            FDValidator.validate(relation, table(), 3);
+            fail();
+        } catch (FDValidator.MissingAttributeException e) {
+            assertEquals("[d]", e.getMessage());
+        }
+    }
+}